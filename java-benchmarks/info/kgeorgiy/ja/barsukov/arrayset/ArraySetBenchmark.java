@@ -0,0 +1,61 @@
+package info.kgeorgiy.ja.barsukov.arrayset;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Lookups and range views of {@link ArraySet}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArraySetBenchmark {
+    @Param({"1000", "1000000"})
+    private int size;
+
+    private ArraySet<Integer> set;
+    private int[] keys;
+    private int next;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(size);
+        final List<Integer> values = random.ints(size, 0, size << 1).boxed().collect(Collectors.toList());
+        set = new ArraySet<>(values);
+        keys = random.ints(1 << 12, 0, size << 1).toArray();
+    }
+
+    private Integer nextKey() {
+        next = (next + 1) & (keys.length - 1);
+        return keys[next];
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return set.contains(nextKey());
+    }
+
+    @Benchmark
+    public SortedSet<Integer> headSet() {
+        return set.headSet(nextKey());
+    }
+
+    @Benchmark
+    public SortedSet<Integer> tailSet() {
+        return set.tailSet(nextKey());
+    }
+
+    @Benchmark
+    public SortedSet<Integer> subSet() {
+        final int from = nextKey();
+        return set.subSet(from, from + (size >> 4));
+    }
+}
@@ -0,0 +1,62 @@
+package info.kgeorgiy.ja.barsukov.arrayset;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Point lookups in {@link ArraySet} with binary search and with {@link EytzingerIndex}.
+ * Keys are random, so large sets do not fit in cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ArraySetSearchBenchmark {
+    @Param({"1000", "100000", "10000000"})
+    private int size;
+
+    private ArraySet<Integer> plain;
+    private ArraySet<Integer> indexed;
+    private Integer[] keys;
+    private int next;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(size);
+        final List<Integer> values = random.ints(size, 0, size << 1).boxed().collect(Collectors.toList());
+        plain = new ArraySet<>(values);
+        indexed = ArraySet.withSearchIndex(values, null);
+        keys = random.ints(1 << 16, 0, size << 1).boxed().toArray(Integer[]::new);
+    }
+
+    private Integer nextKey() {
+        next = (next + 1) & (keys.length - 1);
+        return keys[next];
+    }
+
+    @Benchmark
+    public boolean containsBinarySearch() {
+        return plain.contains(nextKey());
+    }
+
+    @Benchmark
+    public boolean containsEytzinger() {
+        return indexed.contains(nextKey());
+    }
+
+    @Benchmark
+    public Integer ceilingBinarySearch() {
+        return plain.ceiling(nextKey());
+    }
+
+    @Benchmark
+    public Integer ceilingEytzinger() {
+        return indexed.ceiling(nextKey());
+    }
+}
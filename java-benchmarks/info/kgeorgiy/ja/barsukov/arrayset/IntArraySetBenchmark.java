@@ -0,0 +1,80 @@
+package info.kgeorgiy.ja.barsukov.arrayset;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * {@link IntArraySet} against {@code ArraySet<Integer>}: construction, lookups and intersection.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntArraySetBenchmark {
+    @Param({"1000", "1000000"})
+    private int size;
+
+    private int[] values;
+    private List<Integer> boxed;
+    private ArraySet<Integer> arraySet;
+    private ArraySet<Integer> otherArraySet;
+    private IntArraySet intSet;
+    private IntArraySet otherIntSet;
+    private int[] keys;
+    private int next;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(size);
+        values = random.ints(size, 0, size << 1).toArray();
+        boxed = Arrays.stream(values).boxed().collect(Collectors.toList());
+        arraySet = new ArraySet<>(boxed);
+        intSet = new IntArraySet(values);
+        final int[] other = random.ints(size, 0, size << 1).toArray();
+        otherArraySet = new ArraySet<>(Arrays.stream(other).boxed().collect(Collectors.toList()));
+        otherIntSet = new IntArraySet(other);
+        keys = random.ints(1 << 12, 0, size << 1).toArray();
+    }
+
+    private int nextKey() {
+        next = (next + 1) & (keys.length - 1);
+        return keys[next];
+    }
+
+    @Benchmark
+    public boolean containsBoxed() {
+        return arraySet.contains(nextKey());
+    }
+
+    @Benchmark
+    public boolean containsPrimitive() {
+        return intSet.contains(nextKey());
+    }
+
+    @Benchmark
+    public ArraySet<Integer> constructBoxed() {
+        return new ArraySet<>(boxed);
+    }
+
+    @Benchmark
+    public IntArraySet constructPrimitive() {
+        return new IntArraySet(values);
+    }
+
+    @Benchmark
+    public ArraySet<Integer> intersectionBoxed() {
+        return new ArraySet<>(arraySet.stream().filter(otherArraySet::contains).collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public IntArraySet intersectionPrimitive() {
+        return intSet.intersection(otherIntSet);
+    }
+}
@@ -0,0 +1,77 @@
+package info.kgeorgiy.ja.barsukov.concurrent;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * {@link IterativeParallelism} with its own threads, over {@link ParallelMapperImpl} and over {@link ForkJoinPool}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IterativeParallelismBenchmark {
+    @Param({"10000", "10000000"})
+    private int size;
+
+    @Param({"1", "4", "8"})
+    private int threads;
+
+    private List<Integer> values;
+    private ParallelMapperImpl mapper;
+    private IterativeParallelism threadsParallelism;
+    private IterativeParallelism mapperParallelism;
+    private IterativeParallelism forkJoinParallelism;
+
+    @Setup
+    public void setup() {
+        values = new Random(size).ints(size).boxed().collect(Collectors.toList());
+        mapper = new ParallelMapperImpl(threads);
+        threadsParallelism = new IterativeParallelism();
+        mapperParallelism = new IterativeParallelism(mapper);
+        forkJoinParallelism = new IterativeParallelism(ForkJoinPool.commonPool());
+    }
+
+    @TearDown
+    public void tearDown() {
+        mapper.close();
+    }
+
+    @Benchmark
+    public Integer maximum() throws InterruptedException {
+        return threadsParallelism.maximum(threads, values, Comparator.naturalOrder());
+    }
+
+    @Benchmark
+    public boolean all() throws InterruptedException {
+        return threadsParallelism.all(threads, values, v -> v != 0);
+    }
+
+    @Benchmark
+    public Integer maximumMapper() throws InterruptedException {
+        return mapperParallelism.maximum(threads, values, Comparator.naturalOrder());
+    }
+
+    @Benchmark
+    public boolean allMapper() throws InterruptedException {
+        return mapperParallelism.all(threads, values, v -> v != 0);
+    }
+
+    @Benchmark
+    public Integer maximumForkJoin() throws InterruptedException {
+        return forkJoinParallelism.maximum(threads, values, Comparator.naturalOrder());
+    }
+
+    @Benchmark
+    public boolean allForkJoin() throws InterruptedException {
+        return forkJoinParallelism.all(threads, values, v -> v != 0);
+    }
+}
@@ -0,0 +1,63 @@
+package info.kgeorgiy.ja.barsukov.concurrent;
+
+import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * {@link ParallelMapperImpl#map} and {@link WorkStealingParallelMapper#map} with cheap and expensive functions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelMapperBenchmark {
+    private static final Function<Integer, Integer> CHEAP = x -> x + 1;
+    private static final Function<Integer, Integer> EXPENSIVE = x -> {
+        int result = x;
+        for (int i = 0; i < 1000; i++) {
+            result = result * 31 + i;
+        }
+        return result;
+    };
+
+    @Param({"1000", "1000000"})
+    private int size;
+
+    @Param({"1", "4", "8"})
+    private int threads;
+
+    @Param({"queue", "stealing"})
+    private String impl;
+
+    private List<Integer> values;
+    private ParallelMapper mapper;
+
+    @Setup
+    public void setup() {
+        values = IntStream.range(0, size).boxed().collect(Collectors.toList());
+        mapper = "stealing".equals(impl) ? new WorkStealingParallelMapper(threads) : new ParallelMapperImpl(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mapper.close();
+    }
+
+    @Benchmark
+    public List<Integer> mapCheap() throws InterruptedException {
+        return mapper.map(CHEAP, values);
+    }
+
+    @Benchmark
+    public List<Integer> mapExpensive() throws InterruptedException {
+        return mapper.map(EXPENSIVE, values);
+    }
+}
@@ -0,0 +1,59 @@
+package info.kgeorgiy.ja.barsukov.hello;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.net.DatagramSocket;
+import java.net.SocketException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client and server pairs exchanging requests over loopback.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HelloUDPBenchmark {
+    private static final String HOST = "localhost";
+    private static final String PREFIX = "bench_";
+
+    @Param({"blocking", "nonblocking"})
+    private String mode;
+
+    @Param({"1", "8"})
+    private int threads;
+
+    @Param({"100"})
+    private int requests;
+
+    private int port;
+    private AbstractHelloUDPServer server;
+    private AbstractHelloUDPClient client;
+
+    @Setup
+    public void setup() throws SocketException {
+        try (final DatagramSocket socket = new DatagramSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        if ("blocking".equals(mode)) {
+            server = new HelloUDPServer();
+            client = new HelloUDPClient();
+        } else {
+            server = new HelloUDPNonblockingServer();
+            client = new HelloUDPNonblockingClient();
+        }
+        server.start(port, threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public void run() {
+        client.run(HOST, port, PREFIX, threads, requests);
+    }
+}
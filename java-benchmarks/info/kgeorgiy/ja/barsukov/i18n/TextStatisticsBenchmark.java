@@ -0,0 +1,58 @@
+package info.kgeorgiy.ja.barsukov.i18n;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TextStatistics} on a large English text.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextStatisticsBenchmark {
+    private static final String PARAGRAPH = "On March 3, 2022 the lab measured 1,024 samples for $12.50 each. "
+            + "Results were checked twice, and 17 of them failed! Did the others pass on 4/5/2022? "
+            + "Yes: every remaining sample passed within 0.75 seconds.\n";
+
+    @Param({"1000", "10000"})
+    private int paragraphs;
+
+    private String text;
+    private TextStatistics statistics;
+
+    @Setup
+    public void setup() {
+        text = PARAGRAPH.repeat(paragraphs);
+        statistics = new TextStatistics(Locale.US, Locale.US);
+    }
+
+    @Benchmark
+    public TextStatistics.Statistics<String> sentences() {
+        return statistics.getSentenceStatistics(text);
+    }
+
+    @Benchmark
+    public TextStatistics.Statistics<String> words() {
+        return statistics.getWordStatistics(text);
+    }
+
+    @Benchmark
+    public TextStatistics.Statistics<Number> numbers() {
+        return statistics.getNumberStatistics(text);
+    }
+
+    @Benchmark
+    public TextStatistics.Statistics<Number> currencies() {
+        return statistics.getCurrencyStatistics(text);
+    }
+
+    @Benchmark
+    public Object dates() {
+        return statistics.getDateStatistics(text);
+    }
+}
@@ -0,0 +1,41 @@
+package info.kgeorgiy.ja.barsukov.implementor;
+
+import info.kgeorgiy.java.advanced.implementor.ImplerException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Implementor#implementJar}: generation, compilation and packing of one interface.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ImplementorBenchmark {
+    private final Implementor implementor = new Implementor();
+    private Path jar;
+
+    @Setup
+    public void setup() throws IOException {
+        jar = Files.createTempDirectory("implementor-bench").resolve("Impl.jar");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(jar);
+        Files.deleteIfExists(jar.getParent());
+    }
+
+    @Benchmark
+    public Path implementJar() throws ImplerException {
+        implementor.implementJar(Deque.class, jar);
+        return jar;
+    }
+}
@@ -0,0 +1,99 @@
+package info.kgeorgiy.ja.barsukov.student;
+
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+import info.kgeorgiy.java.advanced.student.StudentQuery;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * {@link StudentDB}, {@link IndexedStudentDB}, {@link ParallelStudentDB} and {@link ColumnarStudentDB}
+ * queries on a generated roster. Building the indexes and columns is part of the setup and is not measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StudentDBBenchmark {
+    private static final GroupName[] GROUPS = GroupName.values();
+
+    @Param({"10000", "1000000", "10000000"})
+    private int size;
+
+    @Param({"plain", "indexed", "parallel", "columnar"})
+    private String db;
+
+    private StudentQuery query;
+    private List<Student> students;
+
+    /**
+     * Generates {@code size} students with names repeating as in real rosters.
+     */
+    static List<Student> students(final int size) {
+        final Random random = new Random(size);
+        final int names = Math.max(10, (int) Math.sqrt(size));
+        return IntStream.range(0, size).mapToObj(i -> new Student(
+                random.nextInt(size) + 1,
+                "First" + random.nextInt(names),
+                "Last" + random.nextInt(names),
+                GROUPS[random.nextInt(GROUPS.length)]
+        )).collect(Collectors.toList());
+    }
+
+    @Setup
+    public void setup() {
+        students = students(size);
+        query = switch (db) {
+            case "indexed" -> {
+                final IndexedStudentDB indexed = new IndexedStudentDB(students);
+                students = indexed.getStudents();
+                yield indexed;
+            }
+            case "parallel" -> new ParallelStudentDB();
+            case "columnar" -> {
+                students = StudentColumns.of(students);
+                yield new ColumnarStudentDB();
+            }
+            default -> new StudentDB();
+        };
+    }
+
+    @Benchmark
+    public List<Student> sortStudentsById() {
+        return query.sortStudentsById(students);
+    }
+
+    @Benchmark
+    public List<Student> sortStudentsByName() {
+        return query.sortStudentsByName(students);
+    }
+
+    @Benchmark
+    public Set<String> getDistinctFirstNames() {
+        return query.getDistinctFirstNames(students);
+    }
+
+    @Benchmark
+    public List<Student> findStudentsByGroup() {
+        return query.findStudentsByGroup(students, GroupName.M3236);
+    }
+
+    @Benchmark
+    public List<Student> findStudentsByFirstName() {
+        return query.findStudentsByFirstName(students, "First1");
+    }
+
+    @Benchmark
+    public Map<String, String> findStudentNamesByGroup() {
+        return query.findStudentNamesByGroup(students, GroupName.M3236);
+    }
+}
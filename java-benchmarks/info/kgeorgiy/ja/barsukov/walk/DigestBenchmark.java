@@ -0,0 +1,51 @@
+package info.kgeorgiy.ja.barsukov.walk;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link FileHasher} per digest algorithm. The file is read once
+ * in setup, so it stays in page cache during measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DigestBenchmark {
+    @Param({"SHA-1", "SHA-256", "MD5", "XXH64"})
+    private String algorithm;
+
+    @Param({"65536", "67108864"})
+    private int size;
+
+    private Path file;
+    private FileHasher hasher;
+
+    @Setup
+    public void setup() throws IOException, NoSuchAlgorithmException {
+        final byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        file = Files.createTempFile("walk-digest-bench", ".bin");
+        Files.write(file, data);
+        Files.readAllBytes(file);
+        hasher = new FileHasher(algorithm);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public String hash() {
+        return hasher.getFileHash(file);
+    }
+}
@@ -0,0 +1,54 @@
+package info.kgeorgiy.ja.barsukov.walk;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link FileHasher} channel path (heap buffer or memory mapping) with the stream path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileHasherBenchmark {
+    @Param({"4096", "1048576", "268435456"})
+    private int size;
+
+    private Path file;
+    private FileHasher hasher;
+
+    @Setup
+    public void setup() throws IOException, NoSuchAlgorithmException {
+        final byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        file = Files.createTempFile("walk-bench", ".bin");
+        Files.write(file, data);
+        hasher = new FileHasher(FileHasher.DEFAULT_ALGORITHM);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public String stream() throws IOException {
+        try (final InputStream is = Files.newInputStream(file)) {
+            return hasher.hash(is);
+        }
+    }
+
+    @Benchmark
+    public String channel() {
+        return hasher.getFileHash(file);
+    }
+}
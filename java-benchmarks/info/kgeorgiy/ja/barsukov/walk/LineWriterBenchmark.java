@@ -0,0 +1,54 @@
+package info.kgeorgiy.ja.barsukov.walk;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one output line: the former {@code BigInteger}/{@code String.format} formatting
+ * against {@link LineWriter}. Run with {@code -prof gc} to see allocation per line
+ * ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineWriterBenchmark {
+    private static final String PATH = "java-solutions/info/kgeorgiy/ja/barsukov/walk/Walk.java";
+
+    private final byte[] hash = new byte[20];
+    private BufferedWriter bufferedWriter;
+    private LineWriter lineWriter;
+
+    @Setup
+    public void setup() {
+        new Random(1).nextBytes(hash);
+        bufferedWriter = new BufferedWriter(Writer.nullWriter());
+        lineWriter = new LineWriter(Writer.nullWriter());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        bufferedWriter.close();
+        lineWriter.close();
+    }
+
+    @Benchmark
+    public void format() throws IOException {
+        final String hex = String.format("%0" + (hash.length << 1) + "x", new BigInteger(1, hash));
+        bufferedWriter.write(hex + " " + PATH);
+        bufferedWriter.newLine();
+    }
+
+    @Benchmark
+    public void lineWriter() throws IOException {
+        lineWriter.writeLine(hash, PATH);
+    }
+}
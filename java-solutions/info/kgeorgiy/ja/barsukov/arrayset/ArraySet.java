@@ -2,9 +2,12 @@ package info.kgeorgiy.ja.barsukov.arrayset;
 
 import java.util.*;
 
-public class ArraySet<E> extends AbstractSet<E> implements SortedSet<E> {
+public class ArraySet<E> extends AbstractSet<E> implements NavigableSet<E> {
     private final List<E> array;
     private final Comparator<? super E> comparator;
+    // Optional search index of the root set and offset of this view in it
+    private final EytzingerIndex<E> index;
+    private final int offset;
 
     public ArraySet() {
         this(Collections.emptyList(), null);
@@ -16,9 +19,73 @@ public class ArraySet<E> extends AbstractSet<E> implements SortedSet<E> {
 
     public ArraySet(Collection<? extends E> collection, Comparator<? super E> comparator) {
         this.comparator = comparator;
-        Set<E> treeSet = new TreeSet<>(comparator);
-        treeSet.addAll(collection);
-        array = List.copyOf(treeSet);
+        this.array = sortedDistinct(collection);
+        this.index = null;
+        this.offset = 0;
+    }
+
+    /**
+     * Creates view over already sorted {@code array} without copying it.
+     */
+    private ArraySet(List<E> array, Comparator<? super E> comparator, EytzingerIndex<E> index, int offset) {
+        this.array = array;
+        this.comparator = comparator;
+        this.index = index;
+        this.offset = offset;
+    }
+
+    /**
+     * Creates set that keeps an {@link EytzingerIndex} next to the sorted array, trading
+     * one more array of references for fewer cache misses in lookups on large sets.
+     * Iteration order and semantics are the same as of a plain {@code ArraySet}.
+     */
+    public static <E> ArraySet<E> withSearchIndex(Collection<? extends E> collection,
+            Comparator<? super E> comparator) {
+        final ArraySet<E> set = new ArraySet<>(collection, comparator);
+        return new ArraySet<>(set.array, comparator, new EytzingerIndex<>(set.array, comparator), 0);
+    }
+
+    /**
+     * Copies {@code collection} into an array, sorts it unless it is already sorted
+     * and removes duplicates in place, keeping the first of equal elements.
+     */
+    @SuppressWarnings("unchecked")
+    private List<E> sortedDistinct(Collection<? extends E> collection) {
+        final E[] elements = (E[]) collection.toArray();
+        boolean sorted = true;
+        boolean distinct = true;
+        for (int i = 0; i < elements.length; i++) {
+            Objects.requireNonNull(elements[i], "There is null among arguments");
+            if (i > 0 && sorted) {
+                final int compared = compare(elements[i - 1], elements[i]);
+                sorted = compared <= 0;
+                distinct &= compared != 0;
+            }
+        }
+        if (sorted && distinct) {
+            return Arrays.asList(elements);
+        }
+        if (!sorted) {
+            Arrays.sort(elements, comparator);
+        }
+        int size = elements.length == 0 ? 0 : 1;
+        for (int i = 1; i < elements.length; i++) {
+            if (compare(elements[size - 1], elements[i]) != 0) {
+                elements[size++] = elements[i];
+            }
+        }
+        return Arrays.asList(size == elements.length ? elements : Arrays.copyOf(elements, size));
+    }
+
+    /**
+     * Returns new set with {@code deletes} removed and then {@code inserts} added, built with
+     * one linear merge. The result is stored in chunks, and sets merged from it share the
+     * chunks that their batches did not touch. Search index is not kept.
+     */
+    public ArraySet<E> merge(Collection<? extends E> inserts, Collection<? extends E> deletes) {
+        final ChunkedList<E> chunks = array instanceof ChunkedList<E> list ? list : ChunkedList.of(array);
+        final List<E> merged = chunks.merge(sortedDistinct(inserts), sortedDistinct(deletes), this::compare);
+        return new ArraySet<>(merged, comparator, null, 0);
     }
 
     @Override
@@ -26,6 +93,11 @@ public class ArraySet<E> extends AbstractSet<E> implements SortedSet<E> {
         return array.iterator();
     }
 
+    @Override
+    public Iterator<E> descendingIterator() {
+        return descendingSet().iterator();
+    }
+
     @Override
     public int size() {
         return array.size();
@@ -37,14 +109,75 @@ public class ArraySet<E> extends AbstractSet<E> implements SortedSet<E> {
     }
 
     @Override
-    public SortedSet<E> subSet(E fromElement, E toElement) {
+    public NavigableSet<E> descendingSet() {
+        if (array instanceof ReversedList<E> list) {
+            return new ArraySet<>(list.origin, list.comparator, list.index, list.offset);
+        }
+        return new ArraySet<>(new ReversedList<>(array, comparator, index, offset),
+                Collections.reverseOrder(comparator), null, 0);
+    }
+
+    @Override
+    public E lower(E e) {
+        return getOrNull(lowerIndex(e));
+    }
+
+    @Override
+    public E floor(E e) {
+        return getOrNull(floorIndex(e));
+    }
+
+    @Override
+    public E ceiling(E e) {
+        return getOrNull(ceilingIndex(e));
+    }
+
+    @Override
+    public E higher(E e) {
+        return getOrNull(higherIndex(e));
+    }
+
+    @Override
+    public E pollFirst() {
+        throw new UnsupportedOperationException("ArraySet is immutable");
+    }
+
+    @Override
+    public E pollLast() {
+        throw new UnsupportedOperationException("ArraySet is immutable");
+    }
+
+    @Override
+    public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
         compareCheck(fromElement, toElement);
-        return subSet(insertPoint(fromElement), insertPoint(toElement));
+        final int fromIndex = fromInclusive ? ceilingIndex(fromElement) : higherIndex(fromElement);
+        final int toIndex = (toInclusive ? floorIndex(toElement) : lowerIndex(toElement)) + 1;
+        return subSet(fromIndex, Math.max(fromIndex, toIndex));
+    }
+
+    @Override
+    public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+        return subSet(0, (inclusive ? floorIndex(toElement) : lowerIndex(toElement)) + 1);
+    }
+
+    @Override
+    public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+        return subSet(inclusive ? ceilingIndex(fromElement) : higherIndex(fromElement), size());
+    }
+
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return subSet(fromElement, true, toElement, false);
     }
 
     @Override
     public SortedSet<E> headSet(E toElement) {
-        return subSet(0, insertPoint(toElement));
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return tailSet(fromElement, true);
     }
 
     private int insertPoint(E element) {
@@ -52,9 +185,21 @@ public class ArraySet<E> extends AbstractSet<E> implements SortedSet<E> {
         return insert >= 0 ? insert : -insert - 1;
     }
 
-    @Override
-    public SortedSet<E> tailSet(E fromElement) {
-        return subSet(insertPoint(fromElement), size());
+    private int lowerIndex(E element) {
+        return insertPoint(element) - 1;
+    }
+
+    private int floorIndex(E element) {
+        int index = binarySearch(Objects.requireNonNull(element, "There is null among arguments"));
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private int ceilingIndex(E element) {
+        return insertPoint(element);
+    }
+
+    private int higherIndex(E element) {
+        return floorIndex(element) + 1;
     }
 
     private void compareCheck(E fromElement, E toElement) {
@@ -68,12 +213,16 @@ public class ArraySet<E> extends AbstractSet<E> implements SortedSet<E> {
         return comparator == null ? ((Comparable<E>) o1).compareTo(o2) : comparator.compare(o1, o2);
     }
 
-    private SortedSet<E> subSet(int fromIndex, int toIndex) {
-        return new ArraySet<>(array.subList(fromIndex, toIndex), comparator);
+    private NavigableSet<E> subSet(int fromIndex, int toIndex) {
+        return new ArraySet<>(array.subList(fromIndex, toIndex), comparator, index, offset + fromIndex);
     }
 
     private int binarySearch(E key) {
-        return Collections.binarySearch(array, key, comparator);
+        if (index == null) {
+            return Collections.binarySearch(array, key, comparator);
+        }
+        final int lowerBound = Math.min(Math.max(index.lowerBound(key) - offset, 0), array.size());
+        return lowerBound < array.size() && compare(array.get(lowerBound), key) == 0 ? lowerBound : -lowerBound - 1;
     }
 
     @Override
@@ -93,6 +242,10 @@ public class ArraySet<E> extends AbstractSet<E> implements SortedSet<E> {
         throw new NoSuchElementException("Index " + index + " is out of bound of array");
     }
 
+    private E getOrNull(int index) {
+        return 0 <= index && index < array.size() ? array.get(index) : null;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public boolean contains(Object o) {
@@ -102,4 +255,39 @@ public class ArraySet<E> extends AbstractSet<E> implements SortedSet<E> {
             return false;
         }
     }
+
+    /**
+     * Reversed view of a list, used by {@link #descendingSet()}. Keeps comparator, search index
+     * and offset of the ascending set, so reversing a descending view gives them back.
+     */
+    private static final class ReversedList<E> extends AbstractList<E> implements RandomAccess {
+        private final List<E> origin;
+        private final Comparator<? super E> comparator;
+        private final EytzingerIndex<E> index;
+        private final int offset;
+
+        ReversedList(List<E> origin, Comparator<? super E> comparator, EytzingerIndex<E> index, int offset) {
+            this.origin = origin;
+            this.comparator = comparator;
+            this.index = index;
+            this.offset = offset;
+        }
+
+        @Override
+        public List<E> subList(int fromIndex, int toIndex) {
+            Objects.checkFromToIndex(fromIndex, toIndex, size());
+            final int from = origin.size() - toIndex;
+            return new ReversedList<>(origin.subList(from, origin.size() - fromIndex), comparator, index, offset + from);
+        }
+
+        @Override
+        public E get(int index) {
+            return origin.get(origin.size() - 1 - index);
+        }
+
+        @Override
+        public int size() {
+            return origin.size();
+        }
+    }
 }
@@ -0,0 +1,136 @@
+package info.kgeorgiy.ja.barsukov.arrayset;
+
+import java.util.*;
+
+/**
+ * Immutable list stored as a sequence of small arrays. Lists produced by {@link #merge}
+ * reuse the arrays of the chunks that the batch did not touch, so a small update
+ * of a large set copies only a few chunks. Every chunk except the only one holds from
+ * {@code CHUNK_SIZE / 2} to {@code CHUNK_SIZE} elements: rebuilt chunks are split evenly,
+ * and undersized ones are joined with a neighbour.
+ */
+final class ChunkedList<E> extends AbstractList<E> implements RandomAccess {
+    static final int CHUNK_SIZE = 1024;
+
+    private final Object[][] chunks;
+    // Index of the first element of every chunk, followed by the size of the list
+    private final int[] starts;
+
+    private ChunkedList(final List<Object[]> chunks) {
+        this.chunks = chunks.toArray(new Object[0][]);
+        this.starts = new int[this.chunks.length + 1];
+        for (int i = 0; i < this.chunks.length; i++) {
+            starts[i + 1] = starts[i] + this.chunks[i].length;
+        }
+    }
+
+    static <E> ChunkedList<E> of(final List<E> elements) {
+        final List<Object[]> chunks = new ArrayList<>();
+        split(elements, chunks);
+        return new ChunkedList<>(chunks);
+    }
+
+    /**
+     * Splits {@code elements} into the fewest chunks of equal, up to one, sizes.
+     */
+    private static void split(final List<?> elements, final List<Object[]> chunks) {
+        final int size = elements.size();
+        final int parts = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        for (int part = 0; part < parts; part++) {
+            chunks.add(elements.subList((int) ((long) size * part / parts),
+                    (int) ((long) size * (part + 1) / parts)).toArray());
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(final int index) {
+        Objects.checkIndex(index, size());
+        int chunk = Arrays.binarySearch(starts, 0, chunks.length, index);
+        if (chunk < 0) {
+            chunk = -chunk - 2;
+        }
+        return (E) chunks[chunk][index - starts[chunk]];
+    }
+
+    @Override
+    public int size() {
+        return starts[chunks.length];
+    }
+
+    /**
+     * Merges sorted distinct {@code inserts} and {@code deletes} into this sorted distinct list.
+     * Deletes are applied first, so an element present in both batches ends up in the result
+     * as given in {@code inserts}; an insert equal to a kept element does not replace it.
+     */
+    @SuppressWarnings("unchecked")
+    ChunkedList<E> merge(final List<E> inserts, final List<E> deletes, final Comparator<? super E> comparator) {
+        if (chunks.length == 0) {
+            return of(inserts);
+        }
+        final List<Object[]> result = new ArrayList<>(chunks.length + inserts.size() / CHUNK_SIZE + 1);
+        final List<E> merged = new ArrayList<>();
+        int insert = 0;
+        int delete = 0;
+        for (int c = 0; c < chunks.length; c++) {
+            final Object[] chunk = chunks[c];
+            final E next = c + 1 < chunks.length ? (E) chunks[c + 1][0] : null;
+            final int insertEnd = boundary(inserts, insert, next, comparator);
+            final int deleteEnd = boundary(deletes, delete, next, comparator);
+            if (insert == insertEnd && delete == deleteEnd && merged.isEmpty()) {
+                result.add(chunk);
+                continue;
+            }
+
+            // Elements carried from previous chunks are all smaller than the ones of this chunk
+            int i = 0;
+            while (i < chunk.length || insert < insertEnd) {
+                final int compared = i == chunk.length ? 1
+                        : insert == insertEnd ? -1
+                        : comparator.compare((E) chunk[i], inserts.get(insert));
+                if (compared > 0) {
+                    merged.add(inserts.get(insert++));
+                    continue;
+                }
+                final E element = (E) chunk[i++];
+                while (delete < deleteEnd && comparator.compare(deletes.get(delete), element) < 0) {
+                    delete++;
+                }
+                final boolean deleted = delete < deleteEnd && comparator.compare(deletes.get(delete), element) == 0;
+                if (compared == 0) {
+                    merged.add(deleted ? inserts.get(insert) : element);
+                    insert++;
+                } else if (!deleted) {
+                    merged.add(element);
+                }
+            }
+            delete = deleteEnd;
+            if (merged.size() >= CHUNK_SIZE / 2) {
+                split(merged, result);
+                merged.clear();
+            }
+        }
+        if (!merged.isEmpty()) {
+            if (merged.size() < CHUNK_SIZE / 2 && !result.isEmpty()) {
+                merged.addAll(0, Arrays.asList((E[]) result.remove(result.size() - 1)));
+            }
+            split(merged, result);
+        }
+        return new ChunkedList<>(result);
+    }
+
+    /**
+     * Returns position of the first element of {@code batch} from {@code from} that belongs to the
+     * next chunk, or batch size if {@code next} is {@code null}.
+     */
+    private static <E> int boundary(final List<E> batch, int from, final E next,
+            final Comparator<? super E> comparator) {
+        if (next == null) {
+            return batch.size();
+        }
+        while (from < batch.size() && comparator.compare(batch.get(from), next) < 0) {
+            from++;
+        }
+        return from;
+    }
+}
@@ -0,0 +1,56 @@
+package info.kgeorgiy.ja.barsukov.arrayset;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Copy of sorted elements in Eytzinger (breadth-first search tree) order.
+ * First levels of the tree share a few cache lines, and the search loop has no
+ * data-dependent branch except the comparison, so lookups miss cache less often
+ * than binary search over the sorted array.
+ */
+final class EytzingerIndex<E> {
+    // 1-based: children of node k are 2k and 2k + 1
+    private final Object[] keys;
+    // Index in the sorted array of every node
+    private final int[] ranks;
+    private final Comparator<? super E> comparator;
+    private int next;
+
+    EytzingerIndex(final List<E> sorted, final Comparator<? super E> comparator) {
+        this.keys = new Object[sorted.size() + 1];
+        this.ranks = new int[sorted.size() + 1];
+        this.comparator = comparator;
+        fill(sorted, 1);
+    }
+
+    private void fill(final List<E> sorted, final int k) {
+        if (k < keys.length) {
+            fill(sorted, k << 1);
+            keys[k] = sorted.get(next);
+            ranks[k] = next++;
+            fill(sorted, (k << 1) + 1);
+        }
+    }
+
+    /**
+     * Returns index in the sorted array of the first element not less than {@code key},
+     * or number of elements if there is no such element.
+     */
+    @SuppressWarnings("unchecked")
+    int lowerBound(final E key) {
+        final int n = keys.length - 1;
+        int k = 1;
+        while (k <= n) {
+            k = (k << 1) + (compare((E) keys[k], key) < 0 ? 1 : 0);
+        }
+        // Drop the trailing right turns and the last left one
+        k >>= Integer.numberOfTrailingZeros(~k) + 1;
+        return k == 0 ? n : ranks[k];
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(final E o1, final E o2) {
+        return comparator == null ? ((Comparable<E>) o1).compareTo(o2) : comparator.compare(o1, o2);
+    }
+}
@@ -0,0 +1,57 @@
+package info.kgeorgiy.ja.barsukov.arrayset;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes elements of {@link MappedArraySet} into a fixed number of bytes.
+ */
+public interface FixedWidthCodec<E> {
+    FixedWidthCodec<Integer> INT = new FixedWidthCodec<>() {
+        @Override
+        public int width() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void encode(Integer element, ByteBuffer buffer) {
+            buffer.putInt(element);
+        }
+
+        @Override
+        public Integer decode(ByteBuffer buffer, int offset) {
+            return buffer.getInt(offset);
+        }
+    };
+
+    FixedWidthCodec<Long> LONG = new FixedWidthCodec<>() {
+        @Override
+        public int width() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void encode(Long element, ByteBuffer buffer) {
+            buffer.putLong(element);
+        }
+
+        @Override
+        public Long decode(ByteBuffer buffer, int offset) {
+            return buffer.getLong(offset);
+        }
+    };
+
+    /**
+     * Returns number of bytes of every encoded element.
+     */
+    int width();
+
+    /**
+     * Writes exactly {@link #width()} bytes of {@code element} at the current position of {@code buffer}.
+     */
+    void encode(E element, ByteBuffer buffer);
+
+    /**
+     * Reads element at absolute {@code offset} of {@code buffer} without changing its position.
+     */
+    E decode(ByteBuffer buffer, int offset);
+}
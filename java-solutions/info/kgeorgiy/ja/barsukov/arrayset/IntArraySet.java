@@ -0,0 +1,253 @@
+package info.kgeorgiy.ja.barsukov.arrayset;
+
+import java.util.*;
+
+/**
+ * Immutable sorted set of {@code int} values backed by a {@code int[]}, a primitive counterpart
+ * of {@link ArraySet}. Views share the backing array, bulk operations are linear merges.
+ */
+public class IntArraySet extends AbstractSet<Integer> implements SortedSet<Integer> {
+    private static final int[] EMPTY = new int[0];
+
+    private final int[] elements;
+    private final int from;
+    private final int to;
+
+    public IntArraySet() {
+        this(EMPTY, 0, 0);
+    }
+
+    public IntArraySet(final int... values) {
+        elements = values.clone();
+        from = 0;
+        to = sortedDistinct(elements);
+    }
+
+    public IntArraySet(final Collection<Integer> collection) {
+        elements = collection.stream().mapToInt(Integer::intValue).toArray();
+        from = 0;
+        to = sortedDistinct(elements);
+    }
+
+    private IntArraySet(final int[] elements, final int from, final int to) {
+        this.elements = elements;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Sorts {@code values} unless already sorted and removes duplicates in place.
+     *
+     * @return number of distinct values.
+     */
+    private static int sortedDistinct(final int[] values) {
+        for (int i = 1; i < values.length; i++) {
+            if (values[i - 1] > values[i]) {
+                Arrays.sort(values);
+                break;
+            }
+        }
+        int size = values.length == 0 ? 0 : 1;
+        for (int i = 1; i < values.length; i++) {
+            if (values[size - 1] != values[i]) {
+                values[size++] = values[i];
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int index = from;
+
+            @Override
+            public boolean hasNext() {
+                return index < to;
+            }
+
+            @Override
+            public int nextInt() {
+                if (index == to) {
+                    throw new NoSuchElementException();
+                }
+                return elements[index++];
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    @Override
+    public Comparator<? super Integer> comparator() {
+        return null;
+    }
+
+    public int[] toIntArray() {
+        return Arrays.copyOfRange(elements, from, to);
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return o instanceof Integer value && contains(value.intValue());
+    }
+
+    public boolean contains(final int value) {
+        return binarySearch(value) >= 0;
+    }
+
+    private int binarySearch(final int value) {
+        return Arrays.binarySearch(elements, from, to, value);
+    }
+
+    private int ceilingIndex(final int value) {
+        final int index = binarySearch(value);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private int higherIndex(final int value) {
+        final int index = binarySearch(value);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private OptionalInt getOrEmpty(final int index) {
+        return from <= index && index < to ? OptionalInt.of(elements[index]) : OptionalInt.empty();
+    }
+
+    public OptionalInt lower(final int value) {
+        return getOrEmpty(ceilingIndex(value) - 1);
+    }
+
+    public OptionalInt floor(final int value) {
+        return getOrEmpty(higherIndex(value) - 1);
+    }
+
+    public OptionalInt ceiling(final int value) {
+        return getOrEmpty(ceilingIndex(value));
+    }
+
+    public OptionalInt higher(final int value) {
+        return getOrEmpty(higherIndex(value));
+    }
+
+    public int firstInt() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Set is empty");
+        }
+        return elements[from];
+    }
+
+    public int lastInt() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Set is empty");
+        }
+        return elements[to - 1];
+    }
+
+    @Override
+    public Integer first() {
+        return firstInt();
+    }
+
+    @Override
+    public Integer last() {
+        return lastInt();
+    }
+
+    public IntArraySet subSet(final int fromElement, final int toElement) {
+        if (fromElement > toElement) {
+            throw new IllegalArgumentException("FromElement is more than toElement");
+        }
+        return new IntArraySet(elements, ceilingIndex(fromElement), ceilingIndex(toElement));
+    }
+
+    public IntArraySet headSet(final int toElement) {
+        return new IntArraySet(elements, from, ceilingIndex(toElement));
+    }
+
+    public IntArraySet tailSet(final int fromElement) {
+        return new IntArraySet(elements, ceilingIndex(fromElement), to);
+    }
+
+    @Override
+    public IntArraySet subSet(final Integer fromElement, final Integer toElement) {
+        return subSet(fromElement.intValue(), toElement.intValue());
+    }
+
+    @Override
+    public IntArraySet headSet(final Integer toElement) {
+        return headSet(toElement.intValue());
+    }
+
+    @Override
+    public IntArraySet tailSet(final Integer fromElement) {
+        return tailSet(fromElement.intValue());
+    }
+
+    /**
+     * Returns set of values contained in this set or in {@code other}.
+     */
+    public IntArraySet union(final IntArraySet other) {
+        final int[] result = new int[size() + other.size()];
+        int i = from;
+        int j = other.from;
+        int size = 0;
+        while (i < to && j < other.to) {
+            final int a = elements[i];
+            final int b = other.elements[j];
+            result[size++] = a <= b ? a : b;
+            i += a <= b ? 1 : 0;
+            j += b <= a ? 1 : 0;
+        }
+        System.arraycopy(elements, i, result, size, to - i);
+        size += to - i;
+        System.arraycopy(other.elements, j, result, size, other.to - j);
+        size += other.to - j;
+        return new IntArraySet(result, 0, size);
+    }
+
+    /**
+     * Returns set of values contained both in this set and in {@code other}.
+     */
+    public IntArraySet intersection(final IntArraySet other) {
+        final int[] result = new int[Math.min(size(), other.size())];
+        int i = from;
+        int j = other.from;
+        int size = 0;
+        while (i < to && j < other.to) {
+            final int a = elements[i];
+            final int b = other.elements[j];
+            if (a == b) {
+                result[size++] = a;
+            }
+            i += a <= b ? 1 : 0;
+            j += b <= a ? 1 : 0;
+        }
+        return new IntArraySet(result, 0, size);
+    }
+
+    /**
+     * Returns set of values contained in this set but not in {@code other}.
+     */
+    public IntArraySet difference(final IntArraySet other) {
+        final int[] result = new int[size()];
+        int i = from;
+        int j = other.from;
+        int size = 0;
+        while (i < to && j < other.to) {
+            final int a = elements[i];
+            final int b = other.elements[j];
+            if (a < b) {
+                result[size++] = a;
+            }
+            i += a <= b ? 1 : 0;
+            j += b <= a ? 1 : 0;
+        }
+        System.arraycopy(elements, i, result, size, to - i);
+        size += to - i;
+        return new IntArraySet(result, 0, size);
+    }
+}
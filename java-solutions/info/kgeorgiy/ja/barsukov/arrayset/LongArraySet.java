@@ -0,0 +1,253 @@
+package info.kgeorgiy.ja.barsukov.arrayset;
+
+import java.util.*;
+
+/**
+ * Immutable sorted set of {@code long} values backed by a {@code long[]}, a primitive counterpart
+ * of {@link ArraySet}. Views share the backing array, bulk operations are linear merges.
+ */
+public class LongArraySet extends AbstractSet<Long> implements SortedSet<Long> {
+    private static final long[] EMPTY = new long[0];
+
+    private final long[] elements;
+    private final int from;
+    private final int to;
+
+    public LongArraySet() {
+        this(EMPTY, 0, 0);
+    }
+
+    public LongArraySet(final long... values) {
+        elements = values.clone();
+        from = 0;
+        to = sortedDistinct(elements);
+    }
+
+    public LongArraySet(final Collection<Long> collection) {
+        elements = collection.stream().mapToLong(Long::longValue).toArray();
+        from = 0;
+        to = sortedDistinct(elements);
+    }
+
+    private LongArraySet(final long[] elements, final int from, final int to) {
+        this.elements = elements;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Sorts {@code values} unless already sorted and removes duplicates in place.
+     *
+     * @return number of distinct values.
+     */
+    private static int sortedDistinct(final long[] values) {
+        for (int i = 1; i < values.length; i++) {
+            if (values[i - 1] > values[i]) {
+                Arrays.sort(values);
+                break;
+            }
+        }
+        int size = values.length == 0 ? 0 : 1;
+        for (int i = 1; i < values.length; i++) {
+            if (values[size - 1] != values[i]) {
+                values[size++] = values[i];
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return new PrimitiveIterator.OfLong() {
+            private int index = from;
+
+            @Override
+            public boolean hasNext() {
+                return index < to;
+            }
+
+            @Override
+            public long nextLong() {
+                if (index == to) {
+                    throw new NoSuchElementException();
+                }
+                return elements[index++];
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    @Override
+    public Comparator<? super Long> comparator() {
+        return null;
+    }
+
+    public long[] toLongArray() {
+        return Arrays.copyOfRange(elements, from, to);
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return o instanceof Long value && contains(value.longValue());
+    }
+
+    public boolean contains(final long value) {
+        return binarySearch(value) >= 0;
+    }
+
+    private int binarySearch(final long value) {
+        return Arrays.binarySearch(elements, from, to, value);
+    }
+
+    private int ceilingIndex(final long value) {
+        final int index = binarySearch(value);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private int higherIndex(final long value) {
+        final int index = binarySearch(value);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private OptionalLong getOrEmpty(final int index) {
+        return from <= index && index < to ? OptionalLong.of(elements[index]) : OptionalLong.empty();
+    }
+
+    public OptionalLong lower(final long value) {
+        return getOrEmpty(ceilingIndex(value) - 1);
+    }
+
+    public OptionalLong floor(final long value) {
+        return getOrEmpty(higherIndex(value) - 1);
+    }
+
+    public OptionalLong ceiling(final long value) {
+        return getOrEmpty(ceilingIndex(value));
+    }
+
+    public OptionalLong higher(final long value) {
+        return getOrEmpty(higherIndex(value));
+    }
+
+    public long firstLong() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Set is empty");
+        }
+        return elements[from];
+    }
+
+    public long lastLong() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Set is empty");
+        }
+        return elements[to - 1];
+    }
+
+    @Override
+    public Long first() {
+        return firstLong();
+    }
+
+    @Override
+    public Long last() {
+        return lastLong();
+    }
+
+    public LongArraySet subSet(final long fromElement, final long toElement) {
+        if (fromElement > toElement) {
+            throw new IllegalArgumentException("FromElement is more than toElement");
+        }
+        return new LongArraySet(elements, ceilingIndex(fromElement), ceilingIndex(toElement));
+    }
+
+    public LongArraySet headSet(final long toElement) {
+        return new LongArraySet(elements, from, ceilingIndex(toElement));
+    }
+
+    public LongArraySet tailSet(final long fromElement) {
+        return new LongArraySet(elements, ceilingIndex(fromElement), to);
+    }
+
+    @Override
+    public LongArraySet subSet(final Long fromElement, final Long toElement) {
+        return subSet(fromElement.longValue(), toElement.longValue());
+    }
+
+    @Override
+    public LongArraySet headSet(final Long toElement) {
+        return headSet(toElement.longValue());
+    }
+
+    @Override
+    public LongArraySet tailSet(final Long fromElement) {
+        return tailSet(fromElement.longValue());
+    }
+
+    /**
+     * Returns set of values contained in this set or in {@code other}.
+     */
+    public LongArraySet union(final LongArraySet other) {
+        final long[] result = new long[size() + other.size()];
+        int i = from;
+        int j = other.from;
+        int size = 0;
+        while (i < to && j < other.to) {
+            final long a = elements[i];
+            final long b = other.elements[j];
+            result[size++] = a <= b ? a : b;
+            i += a <= b ? 1 : 0;
+            j += b <= a ? 1 : 0;
+        }
+        System.arraycopy(elements, i, result, size, to - i);
+        size += to - i;
+        System.arraycopy(other.elements, j, result, size, other.to - j);
+        size += other.to - j;
+        return new LongArraySet(result, 0, size);
+    }
+
+    /**
+     * Returns set of values contained both in this set and in {@code other}.
+     */
+    public LongArraySet intersection(final LongArraySet other) {
+        final long[] result = new long[Math.min(size(), other.size())];
+        int i = from;
+        int j = other.from;
+        int size = 0;
+        while (i < to && j < other.to) {
+            final long a = elements[i];
+            final long b = other.elements[j];
+            if (a == b) {
+                result[size++] = a;
+            }
+            i += a <= b ? 1 : 0;
+            j += b <= a ? 1 : 0;
+        }
+        return new LongArraySet(result, 0, size);
+    }
+
+    /**
+     * Returns set of values contained in this set but not in {@code other}.
+     */
+    public LongArraySet difference(final LongArraySet other) {
+        final long[] result = new long[size()];
+        int i = from;
+        int j = other.from;
+        int size = 0;
+        while (i < to && j < other.to) {
+            final long a = elements[i];
+            final long b = other.elements[j];
+            if (a < b) {
+                result[size++] = a;
+            }
+            i += a <= b ? 1 : 0;
+            j += b <= a ? 1 : 0;
+        }
+        System.arraycopy(elements, i, result, size, to - i);
+        size += to - i;
+        return new LongArraySet(result, 0, size);
+    }
+}
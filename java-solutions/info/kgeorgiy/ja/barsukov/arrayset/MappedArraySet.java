@@ -0,0 +1,266 @@
+package info.kgeorgiy.ja.barsukov.arrayset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Immutable sorted set stored off-heap in a memory-mapped file. Elements are kept sorted and
+ * encoded with a {@link FixedWidthCodec}, so opening a file only maps it, and several
+ * processes can share one file through the page cache. Views have the same semantics as
+ * views of {@link ArraySet} and share the mapping.
+ *
+ * <p>File layout: magic, element width (both {@code int}), number of elements ({@code long}),
+ * then the encoded elements.
+ */
+public class MappedArraySet<E> extends AbstractSet<E> implements SortedSet<E> {
+    private static final int MAGIC = 0x41534554;
+    private static final int HEADER_SIZE = 16;
+    private static final int SEGMENT_SIZE = 1 << 30;
+
+    private final ByteBuffer[] segments;
+    private final int perSegment;
+    private final FixedWidthCodec<E> codec;
+    private final Comparator<? super E> comparator;
+    private final int from;
+    private final int to;
+
+    private MappedArraySet(ByteBuffer[] segments, int perSegment, FixedWidthCodec<E> codec,
+            Comparator<? super E> comparator, int from, int to) {
+        this.segments = segments;
+        this.perSegment = perSegment;
+        this.codec = codec;
+        this.comparator = comparator;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Writes {@code collection} to {@code file} in sorted order, then opens the file. Collection
+     * already iterated in {@code comparator} order, duplicates allowed, is streamed to the file
+     * without copying; any other collection is first sorted on the heap with {@link ArraySet}.
+     * The set is written to a temporary file in the same directory that is atomically moved
+     * over {@code file}, so processes that have the old file mapped keep reading it intact.
+     */
+    public static <E> MappedArraySet<E> write(Path file, Collection<? extends E> collection,
+            FixedWidthCodec<E> codec, Comparator<? super E> comparator) throws IOException {
+        if (codec.width() <= 0 || codec.width() > SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Element width should be in [1, " + SEGMENT_SIZE + "]: " + codec.width());
+        }
+        final Path target = file.toAbsolutePath();
+        final Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            if (!writeSorted(temp, collection, codec, comparator)) {
+                writeSorted(temp, new ArraySet<>(collection, comparator), codec, comparator);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return open(target, codec, comparator);
+    }
+
+    /**
+     * Writes {@code elements} skipping duplicates, or returns {@code false} at the first element out of order.
+     */
+    private static <E> boolean writeSorted(Path file, Iterable<? extends E> elements,
+            FixedWidthCodec<E> codec, Comparator<? super E> comparator) throws IOException {
+        final int width = codec.width();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect((int) Math.min(SEGMENT_SIZE, (long) Math.max(HEADER_SIZE, width) << 12));
+            // Header is written when the number of distinct elements is known
+            buffer.position(HEADER_SIZE);
+            long size = 0;
+            E previous = null;
+            for (E element : elements) {
+                Objects.requireNonNull(element, "There is null among arguments");
+                if (previous != null) {
+                    final int compared = compare(comparator, previous, element);
+                    if (compared > 0) {
+                        return false;
+                    } else if (compared == 0) {
+                        continue;
+                    }
+                }
+                if (buffer.remaining() < width) {
+                    writeFully(channel, buffer);
+                }
+                final int position = buffer.position();
+                codec.encode(element, buffer);
+                if (buffer.position() - position != width) {
+                    throw new IllegalArgumentException("Codec wrote " + (buffer.position() - position)
+                            + " bytes instead of " + width);
+                }
+                previous = element;
+                size++;
+            }
+            writeFully(channel, buffer);
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(width).putLong(size);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            return true;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Maps set previously written by {@link #write} with the same codec and comparator.
+     */
+    public static <E> MappedArraySet<E> open(Path file, FixedWidthCodec<E> codec,
+            Comparator<? super E> comparator) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a mapped set file: " + file);
+            }
+            final int width = header.getInt();
+            final long size = header.getLong();
+            if (width <= 0 || width > SEGMENT_SIZE) {
+                throw new IOException("Corrupted mapped set file: " + file);
+            }
+            if (width != codec.width()) {
+                throw new IOException("Element width " + width + " does not match codec width " + codec.width());
+            }
+            if (size < 0 || size > Integer.MAX_VALUE || channel.size() < HEADER_SIZE + size * width) {
+                throw new IOException("Corrupted mapped set file: " + file);
+            }
+            final int perSegment = SEGMENT_SIZE / width;
+            final ByteBuffer[] segments = new ByteBuffer[(int) ((size + perSegment - 1) / perSegment)];
+            for (int i = 0; i < segments.length; i++) {
+                final long first = (long) i * perSegment;
+                final long count = Math.min(perSegment, size - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * width, count * width);
+            }
+            return new MappedArraySet<>(segments, perSegment, codec, comparator, 0, (int) size);
+        }
+    }
+
+    private E get(int index) {
+        final int absolute = from + index;
+        return codec.decode(segments[absolute / perSegment], absolute % perSegment * codec.width());
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size();
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(index++);
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        if (compare(fromElement, toElement) > 0) {
+            throw new IllegalArgumentException("FromElement is more than toElement");
+        }
+        return subSet(insertPoint(fromElement), insertPoint(toElement));
+    }
+
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        return subSet(0, insertPoint(toElement));
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return subSet(insertPoint(fromElement), size());
+    }
+
+    private SortedSet<E> subSet(int fromIndex, int toIndex) {
+        return new MappedArraySet<>(segments, perSegment, codec, comparator, from + fromIndex, from + toIndex);
+    }
+
+    private int insertPoint(E element) {
+        int insert = binarySearch(Objects.requireNonNull(element, "There is null among arguments"));
+        return insert >= 0 ? insert : -insert - 1;
+    }
+
+    private int binarySearch(E key) {
+        int low = 0;
+        int high = size() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int compared = compare(get(mid), key);
+            if (compared < 0) {
+                low = mid + 1;
+            } else if (compared > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -low - 1;
+    }
+
+    private int compare(E o1, E o2) {
+        return compare(comparator, o1, o2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> int compare(Comparator<? super E> comparator, E o1, E o2) {
+        return comparator == null ? ((Comparable<E>) o1).compareTo(o2) : comparator.compare(o1, o2);
+    }
+
+    @Override
+    public E first() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Set is empty");
+        }
+        return get(0);
+    }
+
+    @Override
+    public E last() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Set is empty");
+        }
+        return get(size() - 1);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object o) {
+        try {
+            return binarySearch((E) o) >= 0;
+        } catch (ClassCastException e) {
+            return false;
+        }
+    }
+}
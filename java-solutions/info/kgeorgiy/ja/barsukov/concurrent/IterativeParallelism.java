@@ -4,11 +4,17 @@ import info.kgeorgiy.java.advanced.concurrent.ScalarIP;
 import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -16,16 +22,46 @@ import java.util.stream.Stream;
  * Class for processing lists in multiple threads.
  */
 public class IterativeParallelism implements ScalarIP {
+    // Sizes of the sequential prefix start with PROBE_SIZE and double until it takes SEQUENTIAL_NANOS
+    private static final int PROBE_SIZE = 16;
+    private static final long SEQUENTIAL_NANOS = 50_000;
+    private static final long LEAF_NANOS = 50_000;
+    private static final int LEAVES_PER_THREAD = 4;
 
     private ParallelMapper mapper;
+    private ForkJoinPool pool;
+    private ThreadFactory factory = Thread::new;
 
     public IterativeParallelism() {
     }
 
+    /**
+     * Creates instance that starts a thread from {@code factory} for every part of a list,
+     * so parts blocked on I/O can be run by cheap threads, for example virtual ones
+     * on runtimes that have them. Number of parts, and of threads, is limited by the {@code threads} argument.
+     *
+     * @param factory factory of threads for parts.
+     */
+    public IterativeParallelism(final ThreadFactory factory) {
+        this.factory = factory;
+    }
+
     public IterativeParallelism(final ParallelMapper mapper) {
         this.mapper = mapper;
     }
 
+    /**
+     * Creates instance that runs on {@code pool} instead of starting threads on every call.
+     * Lists are processed sequentially until the measured time exceeds a threshold, the rest
+     * is split recursively into leaves sized by the measured per-element cost,
+     * but not much smaller than a {@code threads * 4}th of the rest.
+     *
+     * @param pool pool to run on, for example {@link ForkJoinPool#commonPool()}.
+     */
+    public IterativeParallelism(final ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
     private static <T> List<Stream<? extends T>> split(final int threads, final List<? extends T> values) {
         final int partsSize = values.size() / threads;
         int remainder = values.size() % threads;
@@ -47,7 +83,7 @@ public class IterativeParallelism implements ScalarIP {
         final List<R> results;
         if (mapper == null) {
             results = new ArrayList<>(Collections.nCopies(parts.size(), null));
-            final List<Thread> threads = createThreads(parts, process, results);
+            final List<Thread> threads = createThreads(factory, parts, process, results);
             joinAll(threads);
         } else {
             results = mapper.map(process, parts);
@@ -55,10 +91,11 @@ public class IterativeParallelism implements ScalarIP {
         return reduce.apply(results.stream());
     }
 
-    private static <T, M> List<Thread> createThreads(final List<Stream<? extends T>> parts,
-            final Function<Stream<? extends T>, M> process, final List<M> results) {
+    private static <T, M> List<Thread> createThreads(final ThreadFactory factory,
+            final List<Stream<? extends T>> parts, final Function<Stream<? extends T>, M> process,
+            final List<M> results) {
         return IntStream.range(0, parts.size()).mapToObj(i -> {
-            final Thread thread = new Thread(() -> results.set(i, process.apply(parts.get(i))));
+            final Thread thread = factory.newThread(() -> results.set(i, process.apply(parts.get(i))));
             thread.start();
             return thread;
         }).toList();
@@ -79,12 +116,71 @@ public class IterativeParallelism implements ScalarIP {
     private <T, R> R execute(final int threads, final List<? extends T> values,
             final Function<Stream<? extends T>, R> process,
             final Function<Stream<? extends R>, R> reduce) throws InterruptedException {
+        if (pool != null) {
+            return forkJoin(threads, values, process, reduce);
+        }
         return execute(split(threads, values), process, reduce);
     }
 
     private <T> T execute(final int threads, final List<? extends T> values,
             final Function<Stream<? extends T>, T> process) throws InterruptedException {
-        return execute(split(threads, values), process, process);
+        return execute(threads, values, process, process);
+    }
+
+    private <T, R> R forkJoin(final int threads, final List<? extends T> values,
+            final Function<Stream<? extends T>, R> process,
+            final Function<Stream<? extends R>, R> reduce) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        final List<R> results = new ArrayList<>();
+        int position = 0;
+        long elapsed = 0;
+        for (int probe = PROBE_SIZE; position < values.size() && elapsed < SEQUENTIAL_NANOS; probe *= 2) {
+            final int end = Math.min(values.size(), position + probe);
+            final long start = System.nanoTime();
+            results.add(process.apply(values.subList(position, end).stream()));
+            elapsed += System.nanoTime() - start;
+            position = end;
+        }
+        if (position < values.size()) {
+            final int rest = values.size() - position;
+            final long byCost = LEAF_NANOS * position / Math.max(elapsed, 1);
+            final long byThreads = (rest + (long) threads * LEAVES_PER_THREAD - 1) / ((long) threads * LEAVES_PER_THREAD);
+            final int grain = (int) Math.min(rest, Math.max(Math.max(byCost, byThreads), 1));
+            results.addAll(pool.invoke(new SplitTask<>(values.subList(position, values.size()), grain, process)));
+        }
+        return reduce.apply(results.stream());
+    }
+
+    /**
+     * Processes lists of at most {@code grain} elements, splitting longer ones in halves.
+     * Returns results of the leaves in order, so they are reduced once, by the caller.
+     */
+    private static final class SplitTask<T, R> extends RecursiveTask<List<R>> {
+        private final List<? extends T> values;
+        private final int grain;
+        private final Function<Stream<? extends T>, R> process;
+
+        SplitTask(final List<? extends T> values, final int grain, final Function<Stream<? extends T>, R> process) {
+            this.values = values;
+            this.grain = grain;
+            this.process = process;
+        }
+
+        @Override
+        protected List<R> compute() {
+            if (values.size() <= grain) {
+                return Collections.singletonList(process.apply(values.stream()));
+            }
+            final int middle = values.size() / 2;
+            final SplitTask<T, R> left = new SplitTask<>(values.subList(0, middle), grain, process);
+            left.fork();
+            final List<R> right = new SplitTask<>(values.subList(middle, values.size()), grain, process).compute();
+            final List<R> results = new ArrayList<>(left.join());
+            results.addAll(right);
+            return results;
+        }
     }
 
     /**
@@ -134,8 +230,7 @@ public class IterativeParallelism implements ScalarIP {
     @Override
     public <T> boolean all(final int threads, final List<? extends T> values,
             final Predicate<? super T> predicate) throws InterruptedException {
-        return execute(threads, values, stream -> stream.allMatch(predicate),
-                stream -> stream.allMatch(Boolean::booleanValue));
+        return !any(threads, values, predicate.negate());
     }
 
     /**
@@ -151,7 +246,110 @@ public class IterativeParallelism implements ScalarIP {
     @Override
     public <T> boolean any(final int threads, final List<? extends T> values,
             final Predicate<? super T> predicate) throws InterruptedException {
-        return execute(threads, values, stream -> stream.anyMatch(predicate),
-                stream -> stream.anyMatch(Boolean::booleanValue));
+        // Part that finds a match sets the flag, and other parts stop at their next element
+        final AtomicBoolean found = new AtomicBoolean();
+        return execute(threads, values, stream -> {
+            final boolean result = stream.anyMatch(value -> found.get() || predicate.test(value));
+            if (result) {
+                found.set(true);
+            }
+            return result;
+        }, stream -> stream.anyMatch(Boolean::booleanValue));
+    }
+
+    /**
+     * Joins values to string.
+     *
+     * @param threads number of concurrent threads.
+     * @param values  values to join.
+     * @return list of joined results of {@link Object#toString()} call on each value.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public String join(final int threads, final List<?> values) throws InterruptedException {
+        return execute(threads, values, stream -> stream.map(String::valueOf).collect(Collectors.joining()),
+                stream -> stream.collect(Collectors.joining()));
+    }
+
+    /**
+     * Filters values by predicate.
+     *
+     * @param threads   number of concurrent threads.
+     * @param values    values to filter.
+     * @param predicate filter predicate.
+     * @param <T>       value type.
+     * @return list of values satisfying given predicate. Order of values is preserved.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public <T> List<T> filter(final int threads, final List<? extends T> values,
+            final Predicate<? super T> predicate) throws InterruptedException {
+        return concat(threads, values, stream -> stream.filter(predicate).toArray());
+    }
+
+    /**
+     * Maps values.
+     *
+     * @param threads number of concurrent threads.
+     * @param values  values to map.
+     * @param f       mapper function.
+     * @param <T>     value type.
+     * @param <U>     mapped value type.
+     * @return list of values mapped by given function. Order of values is preserved.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public <T, U> List<U> map(final int threads, final List<? extends T> values,
+            final Function<? super T, ? extends U> f) throws InterruptedException {
+        return concat(threads, values, stream -> stream.map(f).toArray());
+    }
+
+    /**
+     * Every part is turned into an exactly sized array, and the arrays are copied once
+     * into the result array, sized by their total length.
+     */
+    @SuppressWarnings("unchecked")
+    private <T, U> List<U> concat(final int threads, final List<? extends T> values,
+            final Function<Stream<? extends T>, Object[]> process) throws InterruptedException {
+        final Object[] result = execute(threads, values, process, parts -> {
+            final List<? extends Object[]> arrays = parts.toList();
+            final Object[] joined = new Object[arrays.stream().mapToInt(array -> array.length).sum()];
+            int position = 0;
+            for (final Object[] array : arrays) {
+                System.arraycopy(array, 0, joined, position, array.length);
+                position += array.length;
+            }
+            return joined;
+        });
+        return (List<U>) Arrays.asList(result);
+    }
+
+    /**
+     * Reduces values using monoid.
+     *
+     * @param threads number of concurrent threads.
+     * @param values  values to reduce.
+     * @param monoid  monoid to use.
+     * @param <T>     value type.
+     * @return values reduced by provided monoid or {@link Monoid#identity() identity} if no values specified.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public <T> T reduce(final int threads, final List<T> values, final Monoid<T> monoid) throws InterruptedException {
+        return mapReduce(threads, values, Function.identity(), monoid);
+    }
+
+    /**
+     * Maps and reduces values using monoid.
+     *
+     * @param threads number of concurrent threads.
+     * @param values  values to reduce.
+     * @param lift    mapping function.
+     * @param monoid  monoid to use.
+     * @param <T>     value type.
+     * @param <R>     result type.
+     * @return values reduced by provided monoid or {@link Monoid#identity() identity} if no values specified.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public <T, R> R mapReduce(final int threads, final List<T> values, final Function<? super T, ? extends R> lift,
+            final Monoid<R> monoid) throws InterruptedException {
+        return execute(threads, values, stream -> stream.<R>map(lift).reduce(monoid.identity(), monoid::reduce),
+                stream -> stream.reduce(monoid.identity(), monoid::reduce, monoid::reduce));
     }
 }
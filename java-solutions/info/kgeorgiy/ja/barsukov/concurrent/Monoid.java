@@ -0,0 +1,16 @@
+package info.kgeorgiy.ja.barsukov.concurrent;
+
+import java.util.function.BinaryOperator;
+
+/**
+ * Associative operation with its identity, used by {@link IterativeParallelism#mapReduce}.
+ *
+ * @param identity identity of {@code operator}.
+ * @param operator associative operation.
+ * @param <T>      value type.
+ */
+public record Monoid<T>(T identity, BinaryOperator<T> operator) {
+    T reduce(final T left, final T right) {
+        return operator.apply(left, right);
+    }
+}
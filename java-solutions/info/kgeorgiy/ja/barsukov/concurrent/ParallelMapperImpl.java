@@ -3,16 +3,27 @@ package info.kgeorgiy.ja.barsukov.concurrent;
 import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 public class ParallelMapperImpl implements ParallelMapper {
+    private static final int CHUNKS_PER_WORKER = 4;
 
     private final List<Thread> results;
     private final SynchronizedQueue tasks;
+    private final ThreadFactory factory;
+    private final Semaphore permits;
+    private final Set<Thread> running = ConcurrentHashMap.newKeySet();
 
     public ParallelMapperImpl(final int threads) {
+        factory = null;
+        permits = null;
         tasks = new SynchronizedQueue();
         final Runnable THREAD_TASK = () -> {
             try {
@@ -31,6 +42,25 @@ public class ParallelMapperImpl implements ParallelMapper {
         }).collect(Collectors.toList());
     }
 
+    /**
+     * Creates mapper without workers that applies the function to every element in its own thread
+     * from {@code factory}, with at most {@code concurrency} of them running at once. Suits functions
+     * blocked on I/O when the factory makes cheap threads, for example virtual ones on runtimes that
+     * have them. Results are in the order of arguments, the first exception thrown is rethrown by {@link #map}.
+     *
+     * @param factory     factory of threads for elements.
+     * @param concurrency maximal number of elements processed at once.
+     */
+    public ParallelMapperImpl(final ThreadFactory factory, final int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency should be positive: " + concurrency);
+        }
+        this.factory = factory;
+        this.permits = new Semaphore(concurrency);
+        this.tasks = null;
+        this.results = List.of();
+    }
+
     private static final class SynchronizedQueue {
         private final Queue<Runnable> tasks;
 
@@ -48,22 +78,39 @@ public class ParallelMapperImpl implements ParallelMapper {
             return task;
         }
 
-        synchronized <T, R> void createAndAddTask(final Function<? super T, ? extends R> f,
-                final List<? extends T> args, final int i, final SynchronizedList<R> resultsHandler) {
-            final Runnable task = () -> {
-                final R result = f.apply(args.get(i));
-                resultsHandler.set(i, result);
-            };
+        synchronized void addTask(final Runnable task) {
             tasks.add(task);
-            // :NOTE: notify?
-//            notifyAll();
             notify();
         }
+
+        /**
+         * Adds one task per chunk of {@code chunkSize} arguments under a single lock.
+         */
+        synchronized <T, R> void createAndAddTasks(final Function<? super T, ? extends R> f,
+                final List<? extends T> args, final int chunkSize, final SynchronizedList<R> resultsHandler) {
+            for (int from = 0; from < args.size(); from += chunkSize) {
+                final int start = from;
+                final int end = Math.min(from + chunkSize, args.size());
+                tasks.add(() -> {
+                    final Object[] chunk = new Object[end - start];
+                    try {
+                        for (int i = start; i < end; i++) {
+                            chunk[i - start] = f.apply(args.get(i));
+                        }
+                    } catch (final RuntimeException | Error e) {
+                        resultsHandler.fail(e);
+                    }
+                    resultsHandler.setChunk(start, chunk);
+                });
+            }
+            notifyAll();
+        }
     }
 
     private static final class SynchronizedList<R> {
         private final List<R> results;
         private int counter = 0;
+        private Throwable error;
 
         SynchronizedList(final int size) {
             results = new ArrayList<>(Collections.nCopies(size, null));
@@ -77,10 +124,41 @@ public class ParallelMapperImpl implements ParallelMapper {
             }
         }
 
+        /**
+         * Sets results of a chunk that starts at {@code from}.
+         */
+        @SuppressWarnings("unchecked")
+        synchronized void setChunk(final int from, final Object[] values) {
+            for (int i = 0; i < values.length; i++) {
+                results.set(from + i, (R) values[i]);
+            }
+            counter += values.length;
+            if (counter == results.size()) {
+                notify();
+            }
+        }
+
+        /**
+         * Records exception thrown for some argument, the first one is rethrown by {@link #getList()}.
+         */
+        synchronized void fail(final Throwable e) {
+            if (error == null) {
+                error = e;
+            } else if (error != e) {
+                error.addSuppressed(e);
+            }
+        }
+
         synchronized List<R> getList() throws InterruptedException {
             while (counter < results.size()) {
                 wait();
             }
+            if (error instanceof RuntimeException e) {
+                throw e;
+            }
+            if (error instanceof Error e) {
+                throw e;
+            }
             return results;
         }
     }
@@ -88,13 +166,229 @@ public class ParallelMapperImpl implements ParallelMapper {
     @Override
     public <T, R> List<R> map(final Function<? super T, ? extends R> f,
             final List<? extends T> args) throws InterruptedException {
+        if (factory != null) {
+            return mapPerElement(f, args);
+        }
         final SynchronizedList<R> resultsHandler = new SynchronizedList<>(args.size());
-        IntStream.range(0, args.size()).forEach(i -> tasks.createAndAddTask(f, args, i, resultsHandler));
+        // A few chunks per worker keep workers balanced when elements differ in cost
+        final int chunkSize = Math.max(1, args.size() / (results.size() * CHUNKS_PER_WORKER));
+        tasks.createAndAddTasks(f, args, chunkSize, resultsHandler);
         return resultsHandler.getList();
     }
 
+    private <T, R> List<R> mapPerElement(final Function<? super T, ? extends R> f,
+            final List<? extends T> args) throws InterruptedException {
+        final SynchronizedList<R> resultsHandler = new SynchronizedList<>(args.size());
+        final Set<Thread> started = ConcurrentHashMap.newKeySet();
+        try {
+            for (int i = 0; i < args.size(); i++) {
+                permits.acquire();
+                final int index = i;
+                final Thread thread = factory.newThread(() -> {
+                    R result = null;
+                    try {
+                        result = f.apply(args.get(index));
+                    } catch (final RuntimeException | Error e) {
+                        resultsHandler.fail(e);
+                    } finally {
+                        started.remove(Thread.currentThread());
+                        running.remove(Thread.currentThread());
+                        permits.release();
+                        resultsHandler.set(index, result);
+                    }
+                });
+                started.add(thread);
+                running.add(thread);
+                thread.start();
+            }
+            return resultsHandler.getList();
+        } catch (final InterruptedException e) {
+            started.forEach(Thread::interrupt);
+            throw e;
+        }
+    }
+
+    /**
+     * Receives result of the argument at {@code index}.
+     *
+     * @param <R> result type.
+     */
+    @FunctionalInterface
+    public interface IndexedConsumer<R> {
+        void accept(long index, R result);
+    }
+
+    /**
+     * Applies {@code f} to arguments without blocking the caller.
+     *
+     * @param f           function to apply.
+     * @param args        arguments.
+     * @param maxInFlight maximal number of elements submitted but not finished.
+     * @return future of results in the order of arguments, completed exceptionally
+     * with the first exception thrown by {@code f}.
+     */
+    public <T, R> CompletableFuture<List<R>> mapAsync(final Function<? super T, ? extends R> f,
+            final List<? extends T> args, final int maxInFlight) {
+        final Object[] values = new Object[args.size()];
+        return mapEach(f, args.iterator(), maxInFlight, (index, result) -> values[(int) index] = result)
+                .thenApply(ignored -> {
+                    @SuppressWarnings("unchecked") final List<R> list = (List<R>) Arrays.asList(values);
+                    return list;
+                });
+    }
+
+    /**
+     * Applies {@code f} to arguments and passes every result to {@code consumer} as soon as it is ready.
+     * Arguments are read lazily, at most {@code maxInFlight} ahead of the finished ones,
+     * so {@code args} may be unbounded. The consumer is called from worker threads, concurrently.
+     * Other arguments are not submitted after {@code f} or the consumer throws an exception.
+     *
+     * @param f           function to apply.
+     * @param args        arguments, read by one thread at a time.
+     * @param maxInFlight maximal number of elements submitted but not finished.
+     * @param consumer    receiver of results.
+     * @return future completed after the last result is consumed, or exceptionally
+     * with the first exception thrown.
+     */
+    public <T, R> CompletableFuture<Void> mapEach(final Function<? super T, ? extends R> f,
+            final Iterator<? extends T> args, final int maxInFlight, final IndexedConsumer<? super R> consumer) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Number of elements in flight should be positive: " + maxInFlight);
+        }
+        final Submission<T, R> submission = new Submission<>(f, args, maxInFlight, consumer);
+        submission.fill();
+        return submission.done;
+    }
+
+    /**
+     * Applies {@code f} to arguments and returns results in the order of arguments. Each result is
+     * available as soon as it and the previous ones are ready, at most {@code maxInFlight} arguments
+     * are processed ahead of the consumed result. Exception thrown by {@code f} is rethrown by
+     * {@link Iterator#next()} of its result.
+     *
+     * @param f           function to apply.
+     * @param args        arguments, read lazily by the thread calling the iterator.
+     * @param maxInFlight maximal number of elements submitted but not consumed.
+     * @return iterator over results.
+     */
+    public <T, R> Iterator<R> mapOrdered(final Function<? super T, ? extends R> f,
+            final Iterator<? extends T> args, final int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Number of elements in flight should be positive: " + maxInFlight);
+        }
+        return new Iterator<>() {
+            private final Queue<CompletableFuture<R>> window = new ArrayDeque<>();
+
+            private void fill() {
+                while (window.size() < maxInFlight && args.hasNext()) {
+                    final T arg = args.next();
+                    final CompletableFuture<R> future = new CompletableFuture<>();
+                    window.add(future);
+                    execute(() -> {
+                        try {
+                            future.complete(f.apply(arg));
+                        } catch (final RuntimeException | Error e) {
+                            future.completeExceptionally(e);
+                        }
+                    });
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                fill();
+                return !window.isEmpty();
+            }
+
+            @Override
+            public R next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return window.remove().join();
+                } catch (final CompletionException e) {
+                    if (e.getCause() instanceof RuntimeException cause) {
+                        throw cause;
+                    }
+                    throw e;
+                }
+            }
+        };
+    }
+
+    private void execute(final Runnable task) {
+        if (factory == null) {
+            tasks.addTask(task);
+            return;
+        }
+        final Thread thread = factory.newThread(() -> {
+            try {
+                task.run();
+            } finally {
+                running.remove(Thread.currentThread());
+            }
+        });
+        running.add(thread);
+        thread.start();
+    }
+
+    /**
+     * State of a {@link #mapEach} call. Finished elements submit the next ones, so no thread waits.
+     */
+    private final class Submission<T, R> {
+        private final Function<? super T, ? extends R> f;
+        private final Iterator<? extends T> args;
+        private final int maxInFlight;
+        private final IndexedConsumer<? super R> consumer;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private long next;
+        private int inFlight;
+
+        Submission(final Function<? super T, ? extends R> f, final Iterator<? extends T> args,
+                final int maxInFlight, final IndexedConsumer<? super R> consumer) {
+            this.f = f;
+            this.args = args;
+            this.maxInFlight = maxInFlight;
+            this.consumer = consumer;
+        }
+
+        void fill() {
+            final List<Runnable> batch = new ArrayList<>();
+            synchronized (this) {
+                try {
+                    while (!done.isDone() && inFlight < maxInFlight && args.hasNext()) {
+                        final long index = next++;
+                        final T arg = args.next();
+                        inFlight++;
+                        batch.add(() -> run(index, arg));
+                    }
+                } catch (final RuntimeException e) {
+                    done.completeExceptionally(e);
+                }
+                if (inFlight == 0) {
+                    done.complete(null);
+                }
+            }
+            batch.forEach(ParallelMapperImpl.this::execute);
+        }
+
+        private void run(final long index, final T arg) {
+            try {
+                consumer.accept(index, f.apply(arg));
+            } catch (final RuntimeException | Error e) {
+                done.completeExceptionally(e);
+            }
+            synchronized (this) {
+                inFlight--;
+            }
+            fill();
+        }
+    }
+
     @Override
     public void close() {
+        running.forEach(Thread::interrupt);
         results.forEach(Thread::interrupt);
         try {
             IterativeParallelism.joinAll(results);
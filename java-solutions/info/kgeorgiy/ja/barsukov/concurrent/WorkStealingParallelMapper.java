@@ -0,0 +1,181 @@
+package info.kgeorgiy.ja.barsukov.concurrent;
+
+import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * {@link ParallelMapper} with a deque per worker. {@link #map} splits arguments into a few chunks
+ * per worker and spreads them over the deques. A worker takes chunks from the tail of its own deque
+ * and steals from the heads of other deques when it runs out. Every chunk writes its results into
+ * its own slots of a plain array and then decrements the counter of the call, so the only shared
+ * lock is the one idle workers sleep on, and it is taken once per call.
+ *
+ * <p>A thread waiting in {@link #map} runs chunks as well, so nested calls from mapped functions
+ * do not deadlock. The first exception thrown by the function is rethrown by {@code map}.
+ */
+public class WorkStealingParallelMapper implements ParallelMapper {
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private final List<ConcurrentLinkedDeque<Chunk<?, ?>>> deques;
+    private final List<Thread> workers;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Object idle = new Object();
+    private volatile boolean closed;
+
+    public WorkStealingParallelMapper(final int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads should be positive: " + threads);
+        }
+        deques = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            deques.add(new ConcurrentLinkedDeque<>());
+        }
+        workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            final int id = i;
+            final Thread worker = new Thread(() -> work(id));
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    private void work(final int id) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                final Chunk<?, ?> chunk = take(id);
+                if (chunk != null) {
+                    chunk.run();
+                } else {
+                    synchronized (idle) {
+                        while (queued.get() == 0) {
+                            idle.wait();
+                        }
+                    }
+                }
+            }
+        } catch (final InterruptedException ignored) {
+        }
+    }
+
+    /**
+     * Takes chunk from the tail of deque {@code own}, or steals one from the head of another deque.
+     */
+    private Chunk<?, ?> take(final int own) {
+        Chunk<?, ?> chunk = own >= 0 ? deques.get(own).pollLast() : null;
+        final int start = ThreadLocalRandom.current().nextInt(deques.size());
+        for (int i = 0; chunk == null && i < deques.size(); i++) {
+            chunk = deques.get((start + i) % deques.size()).pollFirst();
+        }
+        if (chunk != null) {
+            queued.decrementAndGet();
+        }
+        return chunk;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T, R> List<R> map(final Function<? super T, ? extends R> f,
+            final List<? extends T> args) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("Mapper is closed");
+        }
+        final int size = args.size();
+        final int chunkSize = Math.max(1, size / (deques.size() * CHUNKS_PER_WORKER));
+        final int chunks = (size + chunkSize - 1) / chunkSize;
+        final Call call = new Call(new Object[size], chunks);
+        if (chunks > 0) {
+            for (int i = 0; i < chunks; i++) {
+                final int from = i * chunkSize;
+                deques.get(i % deques.size()).addLast(new Chunk<>(call, f, args, from, Math.min(from + chunkSize, size)));
+            }
+            queued.addAndGet(chunks);
+            synchronized (idle) {
+                idle.notifyAll();
+            }
+        }
+
+        while (call.remaining.get() > 0) {
+            final Chunk<?, ?> chunk = take(-1);
+            if (chunk != null) {
+                chunk.run();
+            } else {
+                LockSupport.park(call);
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        final Throwable error = call.error.get();
+        if (error instanceof RuntimeException e) {
+            throw e;
+        } else if (error instanceof Error e) {
+            throw e;
+        }
+        return Arrays.asList((R[]) call.results);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        workers.forEach(Thread::interrupt);
+        try {
+            IterativeParallelism.joinAll(workers);
+        } catch (final InterruptedException ignored) {
+        }
+    }
+
+    /**
+     * State of one {@link #map} call.
+     */
+    private static final class Call {
+        private final Object[] results;
+        private final AtomicInteger remaining;
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final Thread caller = Thread.currentThread();
+
+        Call(final Object[] results, final int chunks) {
+            this.results = results;
+            this.remaining = new AtomicInteger(chunks);
+        }
+
+        void fail(final Throwable e) {
+            if (!error.compareAndSet(null, e) && error.get() != e) {
+                error.get().addSuppressed(e);
+            }
+        }
+
+        void done() {
+            // Decrement publishes the results written before it to the caller
+            if (remaining.decrementAndGet() == 0) {
+                LockSupport.unpark(caller);
+            }
+        }
+    }
+
+    private record Chunk<T, R>(Call call, Function<? super T, ? extends R> f, List<? extends T> args,
+            int from, int to) implements Runnable {
+        @Override
+        public void run() {
+            try {
+                if (call.error.get() == null) {
+                    for (int i = from; i < to; i++) {
+                        call.results[i] = f.apply(args.get(i));
+                    }
+                }
+            } catch (final RuntimeException | Error e) {
+                call.fail(e);
+            } finally {
+                call.done();
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package info.kgeorgiy.ja.barsukov.student;
+
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+import info.kgeorgiy.java.advanced.student.StudentQuery;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link StudentQuery} decorator that keeps results of recent queries. Results are keyed by the
+ * query, its argument, the identity of the collection and the version stamp of the collection,
+ * and evicted in least recently used order when there are more than {@code capacity} of them.
+ * Cached results are unmodifiable and shared between calls.
+ *
+ * <p>By default every collection has the version set by {@link #invalidate()}, which should be
+ * called after a roster is modified in place. Rosters that track their own changes may provide
+ * a version function instead.
+ */
+public class CachingStudentQuery implements StudentQuery {
+    private final StudentQuery delegate;
+    private final ToLongFunction<? super Collection<Student>> version;
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Key, Object> cache;
+    private long hits;
+    private long misses;
+
+    public CachingStudentQuery(final StudentQuery delegate, final int capacity) {
+        this(delegate, capacity, null);
+    }
+
+    /**
+     * Creates cache of at most {@code capacity} results that takes version stamps of collections
+     * from {@code version}, or uses {@link #invalidate()} generations if it is {@code null}.
+     */
+    public CachingStudentQuery(final StudentQuery delegate, final int capacity,
+            final ToLongFunction<? super Collection<Student>> version) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity should be positive: " + capacity);
+        }
+        this.delegate = delegate;
+        this.version = version;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Object> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Makes all cached results stale. Stale results are never returned and are evicted over time.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T cached(final String query, final Collection<Student> students, final Object argument,
+            final Supplier<T> compute, final UnaryOperator<T> freeze) {
+        final long stamp = version == null ? generation.get() : version.applyAsLong(students);
+        final Key key = new Key(query, students, argument, stamp);
+        synchronized (this) {
+            final Object result = cache.get(key);
+            if (result != null) {
+                hits++;
+                return (T) result;
+            }
+            misses++;
+        }
+        // Computed without the lock, concurrent misses of the same query may compute it twice
+        final T result = freeze.apply(compute.get());
+        synchronized (this) {
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    @Override
+    public List<String> getFirstNames(final List<Student> students) {
+        return cached("getFirstNames", students, null,
+                () -> delegate.getFirstNames(students), Collections::unmodifiableList);
+    }
+
+    @Override
+    public List<String> getLastNames(final List<Student> students) {
+        return cached("getLastNames", students, null,
+                () -> delegate.getLastNames(students), Collections::unmodifiableList);
+    }
+
+    @Override
+    public List<GroupName> getGroups(final List<Student> students) {
+        return cached("getGroups", students, null,
+                () -> delegate.getGroups(students), Collections::unmodifiableList);
+    }
+
+    @Override
+    public List<String> getFullNames(final List<Student> students) {
+        return cached("getFullNames", students, null,
+                () -> delegate.getFullNames(students), Collections::unmodifiableList);
+    }
+
+    @Override
+    public Set<String> getDistinctFirstNames(final List<Student> students) {
+        return cached("getDistinctFirstNames", students, null,
+                () -> delegate.getDistinctFirstNames(students), Collections::unmodifiableSet);
+    }
+
+    @Override
+    public String getMaxStudentFirstName(final List<Student> students) {
+        return cached("getMaxStudentFirstName", students, null,
+                () -> delegate.getMaxStudentFirstName(students), UnaryOperator.identity());
+    }
+
+    @Override
+    public List<Student> sortStudentsById(final Collection<Student> students) {
+        return cached("sortStudentsById", students, null,
+                () -> delegate.sortStudentsById(students), Collections::unmodifiableList);
+    }
+
+    @Override
+    public List<Student> sortStudentsByName(final Collection<Student> students) {
+        return cached("sortStudentsByName", students, null,
+                () -> delegate.sortStudentsByName(students), Collections::unmodifiableList);
+    }
+
+    @Override
+    public List<Student> findStudentsByFirstName(final Collection<Student> students, final String name) {
+        return cached("findStudentsByFirstName", students, name,
+                () -> delegate.findStudentsByFirstName(students, name), Collections::unmodifiableList);
+    }
+
+    @Override
+    public List<Student> findStudentsByLastName(final Collection<Student> students, final String name) {
+        return cached("findStudentsByLastName", students, name,
+                () -> delegate.findStudentsByLastName(students, name), Collections::unmodifiableList);
+    }
+
+    @Override
+    public List<Student> findStudentsByGroup(final Collection<Student> students, final GroupName group) {
+        return cached("findStudentsByGroup", students, group,
+                () -> delegate.findStudentsByGroup(students, group), Collections::unmodifiableList);
+    }
+
+    @Override
+    public Map<String, String> findStudentNamesByGroup(final Collection<Student> students, final GroupName group) {
+        return cached("findStudentNamesByGroup", students, group,
+                () -> delegate.findStudentNamesByGroup(students, group), Collections::unmodifiableMap);
+    }
+
+    /**
+     * Cache key. Collections are compared by identity, as hashing their contents costs as much as a query.
+     */
+    private record Key(String query, Collection<Student> students, Object argument, long version) {
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof Key key && query.equals(key.query) && students == key.students
+                    && Objects.equals(argument, key.argument) && version == key.version;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(query, System.identityHashCode(students), argument, version);
+        }
+    }
+}
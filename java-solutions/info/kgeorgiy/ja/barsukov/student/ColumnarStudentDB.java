@@ -0,0 +1,193 @@
+package info.kgeorgiy.ja.barsukov.student;
+
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+import info.kgeorgiy.java.advanced.student.StudentQuery;
+
+import java.util.*;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+/**
+ * {@link StudentQuery} that scans the columns of a {@link StudentColumns} list. Filters compare
+ * int codes, sorts use {@link PrimitiveSort} over ids and name ranks, and students are created
+ * only for the returned lists. Other collections are handled by {@link StudentDB}.
+ */
+public class ColumnarStudentDB implements StudentQuery {
+    private static final StudentQuery FALLBACK = new StudentDB();
+
+    @Override
+    public List<String> getFirstNames(final List<Student> students) {
+        if (students instanceof StudentColumns columns) {
+            return map(columns, i -> columns.dictionary[columns.firstNames[i]]);
+        }
+        return FALLBACK.getFirstNames(students);
+    }
+
+    @Override
+    public List<String> getLastNames(final List<Student> students) {
+        if (students instanceof StudentColumns columns) {
+            return map(columns, i -> columns.dictionary[columns.lastNames[i]]);
+        }
+        return FALLBACK.getLastNames(students);
+    }
+
+    @Override
+    public List<GroupName> getGroups(final List<Student> students) {
+        if (students instanceof StudentColumns columns) {
+            return map(columns, i -> StudentColumns.GROUPS[columns.groups[i]]);
+        }
+        return FALLBACK.getGroups(students);
+    }
+
+    @Override
+    public List<String> getFullNames(final List<Student> students) {
+        if (students instanceof StudentColumns columns) {
+            return map(columns, i -> columns.dictionary[columns.firstNames[i]] + " "
+                    + columns.dictionary[columns.lastNames[i]]);
+        }
+        return FALLBACK.getFullNames(students);
+    }
+
+    private static <T> List<T> map(final StudentColumns columns, final IntFunction<T> mapper) {
+        final List<T> result = new ArrayList<>(columns.size);
+        for (int i = 0; i < columns.size; i++) {
+            result.add(mapper.apply(i));
+        }
+        return result;
+    }
+
+    @Override
+    public Set<String> getDistinctFirstNames(final List<Student> students) {
+        if (!(students instanceof StudentColumns columns)) {
+            return FALLBACK.getDistinctFirstNames(students);
+        }
+        final boolean[] seen = new boolean[columns.dictionary.length];
+        for (int i = 0; i < columns.size; i++) {
+            seen[columns.firstNames[i]] = true;
+        }
+        final Set<String> names = new TreeSet<>();
+        for (int code = 0; code < seen.length; code++) {
+            if (seen[code]) {
+                names.add(columns.dictionary[code]);
+            }
+        }
+        return names;
+    }
+
+    @Override
+    public String getMaxStudentFirstName(final List<Student> students) {
+        if (!(students instanceof StudentColumns columns)) {
+            return FALLBACK.getMaxStudentFirstName(students);
+        }
+        int max = -1;
+        for (int i = 0; i < columns.size; i++) {
+            if (max < 0 || columns.ids[i] > columns.ids[max]) {
+                max = i;
+            }
+        }
+        return max < 0 ? "" : columns.dictionary[columns.firstNames[max]];
+    }
+
+    @Override
+    public List<Student> sortStudentsById(final Collection<Student> students) {
+        if (!(students instanceof StudentColumns columns)) {
+            return FALLBACK.sortStudentsById(students);
+        }
+        return materialize(columns, PrimitiveSort.order(Arrays.copyOf(columns.ids, columns.size)));
+    }
+
+    @Override
+    public List<Student> sortStudentsByName(final Collection<Student> students) {
+        if (!(students instanceof StudentColumns columns)) {
+            return FALLBACK.sortStudentsByName(students);
+        }
+        return findStudents(columns, i -> true);
+    }
+
+    @Override
+    public List<Student> findStudentsByFirstName(final Collection<Student> students, final String name) {
+        if (!(students instanceof StudentColumns columns)) {
+            return FALLBACK.findStudentsByFirstName(students, name);
+        }
+        final int code = columns.code(name);
+        return findStudents(columns, i -> columns.firstNames[i] == code);
+    }
+
+    @Override
+    public List<Student> findStudentsByLastName(final Collection<Student> students, final String name) {
+        if (!(students instanceof StudentColumns columns)) {
+            return FALLBACK.findStudentsByLastName(students, name);
+        }
+        final int code = columns.code(name);
+        return findStudents(columns, i -> columns.lastNames[i] == code);
+    }
+
+    @Override
+    public List<Student> findStudentsByGroup(final Collection<Student> students, final GroupName group) {
+        if (!(students instanceof StudentColumns columns)) {
+            return FALLBACK.findStudentsByGroup(students, group);
+        }
+        return findStudents(columns, inGroup(columns, group));
+    }
+
+    @Override
+    public Map<String, String> findStudentNamesByGroup(final Collection<Student> students, final GroupName group) {
+        if (!(students instanceof StudentColumns columns)) {
+            return FALLBACK.findStudentNamesByGroup(students, group);
+        }
+        // Smaller dictionary code is not a smaller name, so minimal first names are chosen by rank
+        final Map<Integer, Integer> names = new HashMap<>();
+        final IntPredicate inGroup = inGroup(columns, group);
+        for (int i = 0; i < columns.size; i++) {
+            if (inGroup.test(i)) {
+                names.merge(columns.lastNames[i], columns.firstNames[i],
+                        (a, b) -> columns.descendingRanks[a] > columns.descendingRanks[b] ? a : b);
+            }
+        }
+        final Map<String, String> result = new HashMap<>();
+        names.forEach((last, first) -> result.put(columns.dictionary[last], columns.dictionary[first]));
+        return result;
+    }
+
+    private static IntPredicate inGroup(final StudentColumns columns, final GroupName group) {
+        final byte ordinal = (byte) group.ordinal();
+        return i -> columns.groups[i] == ordinal;
+    }
+
+    /**
+     * Selects rows matching {@code filter} and returns them sorted by name.
+     */
+    private static List<Student> findStudents(final StudentColumns columns, final IntPredicate filter) {
+        int[] rows = new int[columns.size];
+        int count = 0;
+        for (int i = 0; i < columns.size; i++) {
+            if (filter.test(i)) {
+                rows[count++] = i;
+            }
+        }
+        rows = Arrays.copyOf(rows, count);
+
+        final int[] lasts = new int[count];
+        final int[] firsts = new int[count];
+        final int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            lasts[i] = columns.descendingRanks[columns.lastNames[rows[i]]];
+            firsts[i] = columns.descendingRanks[columns.firstNames[rows[i]]];
+            ids[i] = columns.ids[rows[i]];
+        }
+        final int[] order = PrimitiveSort.order(PrimitiveSort.nameKeys(lasts, firsts, ids));
+        for (int i = 0; i < count; i++) {
+            order[i] = rows[order[i]];
+        }
+        return materialize(columns, order);
+    }
+
+    private static List<Student> materialize(final StudentColumns columns, final int[] rows) {
+        final List<Student> result = new ArrayList<>(rows.length);
+        for (final int row : rows) {
+            result.add(columns.get(row));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,135 @@
+package info.kgeorgiy.ja.barsukov.student;
+
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+import info.kgeorgiy.java.advanced.student.StudentQuery;
+
+import java.util.*;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * {@link StudentQuery} over a roster fixed at construction. Students are sorted by id and by name
+ * once, and hash indexes by first name, last name and group keep lists already sorted by name,
+ * so queries against the roster are lookups. Queries are answered from the indexes only when given
+ * the immutable copy of the roster returned by {@link #getStudents()}; any other collection,
+ * including the one the indexes were built from, is handled by {@link StudentDB}.
+ * Collections returned from the indexes are immutable.
+ */
+public class IndexedStudentDB implements StudentQuery {
+    private static final StudentQuery FALLBACK = new StudentDB();
+
+    private final List<Student> students;
+    private final List<Student> byId;
+    private final List<Student> byName;
+    private final Map<String, List<Student>> byFirstName;
+    private final Map<String, List<Student>> byLastName;
+    private final Map<GroupName, List<Student>> byGroup;
+    private final Map<GroupName, Map<String, String>> namesByGroup;
+    private final SortedSet<String> distinctFirstNames;
+    private final String maxStudentFirstName;
+
+    public IndexedStudentDB(final Collection<Student> roster) {
+        this.students = List.copyOf(roster);
+        this.byId = sorted(StudentDB.COMPARE_ID);
+        this.byName = sorted(StudentDB.SORT_BY_NAME);
+        this.byFirstName = index(Student::getFirstName);
+        this.byLastName = index(Student::getLastName);
+        this.byGroup = index(Student::getGroup);
+        this.namesByGroup = byGroup.entrySet().stream().collect(Collectors.toUnmodifiableMap(Map.Entry::getKey,
+                entry -> entry.getValue().stream().collect(Collectors.toUnmodifiableMap(
+                        Student::getLastName, Student::getFirstName, BinaryOperator.minBy(String::compareTo)))));
+        this.distinctFirstNames = Collections.unmodifiableSortedSet(new TreeSet<>(byFirstName.keySet()));
+        this.maxStudentFirstName = FALLBACK.getMaxStudentFirstName(students);
+    }
+
+    /**
+     * Returns immutable copy of the roster in its original order.
+     */
+    public List<Student> getStudents() {
+        return students;
+    }
+
+    private List<Student> sorted(final Comparator<Student> comparator) {
+        return students.stream().sorted(comparator).toList();
+    }
+
+    private <K> Map<K, List<Student>> index(final Function<Student, K> key) {
+        // byName is already sorted, and groupingBy keeps encounter order inside every group
+        return byName.stream().collect(Collectors.collectingAndThen(
+                Collectors.groupingBy(key, Collectors.toUnmodifiableList()), Collections::unmodifiableMap));
+    }
+
+    private boolean indexed(final Collection<Student> collection) {
+        return collection == students;
+    }
+
+    @Override
+    public List<String> getFirstNames(final List<Student> students) {
+        return FALLBACK.getFirstNames(students);
+    }
+
+    @Override
+    public List<String> getLastNames(final List<Student> students) {
+        return FALLBACK.getLastNames(students);
+    }
+
+    @Override
+    public List<GroupName> getGroups(final List<Student> students) {
+        return FALLBACK.getGroups(students);
+    }
+
+    @Override
+    public List<String> getFullNames(final List<Student> students) {
+        return FALLBACK.getFullNames(students);
+    }
+
+    @Override
+    public Set<String> getDistinctFirstNames(final List<Student> students) {
+        return indexed(students) ? distinctFirstNames : FALLBACK.getDistinctFirstNames(students);
+    }
+
+    @Override
+    public String getMaxStudentFirstName(final List<Student> students) {
+        return indexed(students) ? maxStudentFirstName : FALLBACK.getMaxStudentFirstName(students);
+    }
+
+    @Override
+    public List<Student> sortStudentsById(final Collection<Student> students) {
+        return indexed(students) ? byId : FALLBACK.sortStudentsById(students);
+    }
+
+    @Override
+    public List<Student> sortStudentsByName(final Collection<Student> students) {
+        return indexed(students) ? byName : FALLBACK.sortStudentsByName(students);
+    }
+
+    @Override
+    public List<Student> findStudentsByFirstName(final Collection<Student> students, final String name) {
+        return indexed(students)
+                ? byFirstName.getOrDefault(name, List.of())
+                : FALLBACK.findStudentsByFirstName(students, name);
+    }
+
+    @Override
+    public List<Student> findStudentsByLastName(final Collection<Student> students, final String name) {
+        return indexed(students)
+                ? byLastName.getOrDefault(name, List.of())
+                : FALLBACK.findStudentsByLastName(students, name);
+    }
+
+    @Override
+    public List<Student> findStudentsByGroup(final Collection<Student> students, final GroupName group) {
+        return indexed(students)
+                ? byGroup.getOrDefault(group, List.of())
+                : FALLBACK.findStudentsByGroup(students, group);
+    }
+
+    @Override
+    public Map<String, String> findStudentNamesByGroup(final Collection<Student> students, final GroupName group) {
+        return indexed(students)
+                ? namesByGroup.getOrDefault(group, Map.of())
+                : FALLBACK.findStudentNamesByGroup(students, group);
+    }
+}
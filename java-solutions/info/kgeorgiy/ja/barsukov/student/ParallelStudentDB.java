@@ -0,0 +1,179 @@
+package info.kgeorgiy.ja.barsukov.student;
+
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+import info.kgeorgiy.java.advanced.student.StudentQuery;
+
+import java.util.*;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link StudentQuery} for large rosters. Collections smaller than the threshold are handled
+ * by {@link StudentDB}, larger ones by parallel streams. Sorts do not call chained comparators:
+ * every student gets a primitive key (its id, or dense ranks of its names and id), and
+ * {@code (key, index)} pairs packed into {@code long}s are sorted with {@link Arrays#parallelSort(long[])}.
+ * Names are compared only while ranking the distinct ones.
+ */
+public class ParallelStudentDB implements StudentQuery {
+    public static final int DEFAULT_THRESHOLD = 1 << 14;
+
+    private static final StudentQuery SEQUENTIAL = new StudentDB();
+
+    private final int threshold;
+
+    public ParallelStudentDB() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates query engine that goes parallel for collections of at least {@code threshold} students.
+     */
+    public ParallelStudentDB(final int threshold) {
+        this.threshold = threshold;
+    }
+
+    private boolean sequential(final Collection<Student> students) {
+        return students.size() < threshold;
+    }
+
+    @Override
+    public List<String> getFirstNames(final List<Student> students) {
+        return sequential(students) ? SEQUENTIAL.getFirstNames(students) : getProperty(Student::getFirstName, students);
+    }
+
+    @Override
+    public List<String> getLastNames(final List<Student> students) {
+        return sequential(students) ? SEQUENTIAL.getLastNames(students) : getProperty(Student::getLastName, students);
+    }
+
+    @Override
+    public List<GroupName> getGroups(final List<Student> students) {
+        return sequential(students) ? SEQUENTIAL.getGroups(students) : getProperty(Student::getGroup, students);
+    }
+
+    @Override
+    public List<String> getFullNames(final List<Student> students) {
+        return sequential(students)
+                ? SEQUENTIAL.getFullNames(students)
+                : getProperty(student -> student.getFirstName() + " " + student.getLastName(), students);
+    }
+
+    private <T> List<T> getProperty(final Function<? super Student, ? extends T> mapper, final List<Student> students) {
+        return students.parallelStream().<T>map(mapper).collect(Collectors.toList());
+    }
+
+    @Override
+    public Set<String> getDistinctFirstNames(final List<Student> students) {
+        if (sequential(students)) {
+            return SEQUENTIAL.getDistinctFirstNames(students);
+        }
+        // Few distinct names are sorted once instead of inserting every student into a tree
+        return new TreeSet<>(students.parallelStream().map(Student::getFirstName).collect(Collectors.toSet()));
+    }
+
+    @Override
+    public String getMaxStudentFirstName(final List<Student> students) {
+        if (sequential(students)) {
+            return SEQUENTIAL.getMaxStudentFirstName(students);
+        }
+        return students.parallelStream().max(StudentDB.COMPARE_ID).map(Student::getFirstName).orElse("");
+    }
+
+    @Override
+    public List<Student> sortStudentsById(final Collection<Student> students) {
+        if (sequential(students)) {
+            return SEQUENTIAL.sortStudentsById(students);
+        }
+        final Student[] array = students.toArray(Student[]::new);
+        final int[] ids = new int[array.length];
+        for (int i = 0; i < array.length; i++) {
+            ids[i] = array[i].getId();
+        }
+        return permute(array, PrimitiveSort.order(ids));
+    }
+
+    @Override
+    public List<Student> sortStudentsByName(final Collection<Student> students) {
+        if (sequential(students)) {
+            return SEQUENTIAL.sortStudentsByName(students);
+        }
+        final Student[] array = students.toArray(Student[]::new);
+        return permute(array, PrimitiveSort.order(nameKeys(array)));
+    }
+
+    private static int[] nameKeys(final Student[] students) {
+        final Map<String, Integer> lastRanks = descendingRanks(students, Student::getLastName);
+        final Map<String, Integer> firstRanks = descendingRanks(students, Student::getFirstName);
+        final int[] lasts = new int[students.length];
+        final int[] firsts = new int[students.length];
+        final int[] ids = new int[students.length];
+        for (int i = 0; i < students.length; i++) {
+            lasts[i] = lastRanks.get(students[i].getLastName());
+            firsts[i] = firstRanks.get(students[i].getFirstName());
+            ids[i] = students[i].getId();
+        }
+        return PrimitiveSort.nameKeys(lasts, firsts, ids);
+    }
+
+    private static Map<String, Integer> descendingRanks(final Student[] students,
+            final Function<Student, String> name) {
+        final String[] names = Arrays.stream(students).parallel().map(name).distinct().toArray(String[]::new);
+        Arrays.parallelSort(names, Comparator.reverseOrder());
+        final Map<String, Integer> ranks = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            ranks.put(names[i], i);
+        }
+        return ranks;
+    }
+
+    private static List<Student> permute(final Student[] students, final int[] order) {
+        final Student[] result = new Student[students.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = students[order[i]];
+        }
+        return new ArrayList<>(Arrays.asList(result));
+    }
+
+    private <T> List<Student> findStudents(final Collection<Student> students,
+            final Function<Student, T> property, final T expected) {
+        return sortStudentsByName(filter(students, property, expected).collect(Collectors.toList()));
+    }
+
+    private static <T> Stream<Student> filter(final Collection<Student> students,
+            final Function<Student, T> property, final T expected) {
+        return students.parallelStream().filter(student -> property.apply(student).equals(expected));
+    }
+
+    @Override
+    public List<Student> findStudentsByFirstName(final Collection<Student> students, final String name) {
+        return sequential(students)
+                ? SEQUENTIAL.findStudentsByFirstName(students, name)
+                : findStudents(students, Student::getFirstName, name);
+    }
+
+    @Override
+    public List<Student> findStudentsByLastName(final Collection<Student> students, final String name) {
+        return sequential(students)
+                ? SEQUENTIAL.findStudentsByLastName(students, name)
+                : findStudents(students, Student::getLastName, name);
+    }
+
+    @Override
+    public List<Student> findStudentsByGroup(final Collection<Student> students, final GroupName group) {
+        return sequential(students)
+                ? SEQUENTIAL.findStudentsByGroup(students, group)
+                : findStudents(students, Student::getGroup, group);
+    }
+
+    @Override
+    public Map<String, String> findStudentNamesByGroup(final Collection<Student> students, final GroupName group) {
+        if (sequential(students)) {
+            return SEQUENTIAL.findStudentNamesByGroup(students, group);
+        }
+        return filter(students, Student::getGroup, group).collect(
+                Collectors.toMap(Student::getLastName, Student::getFirstName, BinaryOperator.minBy(String::compareTo)));
+    }
+}
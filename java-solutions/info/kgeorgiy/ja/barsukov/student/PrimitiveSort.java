@@ -0,0 +1,64 @@
+package info.kgeorgiy.ja.barsukov.student;
+
+import java.util.Arrays;
+
+/**
+ * Sorting of students by primitive keys. A key and an index are packed into a {@code long},
+ * so sorts are {@link Arrays#parallelSort(long[])} calls without comparators.
+ */
+final class PrimitiveSort {
+    private PrimitiveSort() {
+    }
+
+    /**
+     * Returns keys that order students as {@link StudentDB#SORT_BY_NAME} does, given ranks of
+     * last and first names in descending order and ids.
+     */
+    static int[] nameKeys(final int[] lastRanks, final int[] firstRanks, final int[] ids) {
+        final long[] keys = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            keys[i] = (long) lastRanks[i] << 32 | firstRanks[i];
+        }
+        final int[] names = denseRanks(keys);
+        for (int i = 0; i < ids.length; i++) {
+            // Flipping the sign bit makes unsigned order of ids match the signed one
+            keys[i] = (long) names[i] << 32 | (ids[i] ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+        }
+        return denseRanks(keys);
+    }
+
+    /**
+     * Replaces every key with the number of distinct smaller keys.
+     */
+    static int[] denseRanks(final long[] keys) {
+        final long[] sorted = keys.clone();
+        Arrays.parallelSort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[distinct - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        final int[] ranks = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            ranks[i] = Arrays.binarySearch(sorted, 0, distinct, keys[i]);
+        }
+        return ranks;
+    }
+
+    /**
+     * Returns indexes sorted by {@code keys}, equal keys keep their order.
+     */
+    static int[] order(final int[] keys) {
+        final long[] packed = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            packed[i] = (long) keys[i] << 32 | i;
+        }
+        Arrays.parallelSort(packed);
+        final int[] order = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = (int) packed[i];
+        }
+        return order;
+    }
+}
@@ -0,0 +1,278 @@
+package info.kgeorgiy.ja.barsukov.student;
+
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Student queries over a roster file that is never loaded as a whole. Every line of the file
+ * is an {@code id,firstName,lastName,group} record, names must not contain commas.
+ * Aggregates are computed in a single pass over the file. Sorted results are produced by
+ * an external merge sort: runs of at most {@code budget} students are sorted in memory and
+ * spilled to temporary files. At most {@value #MERGE_FAN_IN} runs are merged at once, in several
+ * passes if needed, and the last pass is lazy. Returned streams must be closed,
+ * closing removes the temporary files.
+ */
+public class StreamingStudentDB {
+    private static final String SEPARATOR = ",";
+    private static final int MERGE_FAN_IN = 16;
+
+    private final Path file;
+    private final int budget;
+
+    /**
+     * Creates queries over {@code file} that keep at most {@code budget} students in memory while sorting.
+     */
+    public StreamingStudentDB(final Path file, final int budget) {
+        if (budget <= 0) {
+            throw new IllegalArgumentException("Memory budget should be positive: " + budget);
+        }
+        this.file = file;
+        this.budget = budget;
+    }
+
+    static Student parse(final String line) {
+        final String[] parts = line.split(SEPARATOR, 4);
+        try {
+            if (parts.length == 4) {
+                return new Student(Integer.parseInt(parts[0].trim()), parts[1], parts[2],
+                        GroupName.valueOf(parts[3].trim()));
+            }
+        } catch (final IllegalArgumentException ignored) {
+        }
+        throw new IllegalArgumentException("Malformed student record: " + line);
+    }
+
+    static String format(final Student student) {
+        return String.join(SEPARATOR, Integer.toString(student.getId()), student.getFirstName(),
+                student.getLastName(), student.getGroup().name());
+    }
+
+    /**
+     * Lazily reads students of the roster in file order.
+     */
+    public Stream<Student> students() throws IOException {
+        return Files.lines(file).filter(line -> !line.isBlank()).map(StreamingStudentDB::parse);
+    }
+
+    public Set<String> getDistinctFirstNames() throws IOException {
+        try (final Stream<Student> students = students()) {
+            return students.map(Student::getFirstName).collect(Collectors.toCollection(TreeSet::new));
+        }
+    }
+
+    public String getMaxStudentFirstName() throws IOException {
+        try (final Stream<Student> students = students()) {
+            return students.max(StudentDB.COMPARE_ID).map(Student::getFirstName).orElse("");
+        }
+    }
+
+    public Map<String, String> findStudentNamesByGroup(final GroupName group) throws IOException {
+        try (final Stream<Student> students = students()) {
+            return students.filter(student -> student.getGroup().equals(group)).collect(
+                    Collectors.toMap(Student::getLastName, Student::getFirstName, BinaryOperator.minBy(String::compareTo)));
+        }
+    }
+
+    public Stream<Student> sortStudentsById() throws IOException {
+        return sort(students(), StudentDB.COMPARE_ID);
+    }
+
+    public Stream<Student> sortStudentsByName() throws IOException {
+        return sort(students(), StudentDB.SORT_BY_NAME);
+    }
+
+    public Stream<Student> findStudentsByFirstName(final String name) throws IOException {
+        return findStudents(Student::getFirstName, name);
+    }
+
+    public Stream<Student> findStudentsByLastName(final String name) throws IOException {
+        return findStudents(Student::getLastName, name);
+    }
+
+    public Stream<Student> findStudentsByGroup(final GroupName group) throws IOException {
+        return findStudents(Student::getGroup, group);
+    }
+
+    private <T> Stream<Student> findStudents(final Function<Student, T> property, final T expected)
+            throws IOException {
+        return sort(students().filter(student -> property.apply(student).equals(expected)), StudentDB.SORT_BY_NAME);
+    }
+
+    /**
+     * Sorts {@code source} stably, spilling sorted runs of {@code budget} students to temporary files
+     * and merging at most {@link #MERGE_FAN_IN} of them at a time.
+     */
+    private Stream<Student> sort(final Stream<Student> source, final Comparator<Student> comparator)
+            throws IOException {
+        // Every file created by this call, deleted unless the merged stream takes over the last runs
+        final List<Path> created = new ArrayList<>();
+        boolean success = false;
+        try {
+            List<Path> runs = new ArrayList<>();
+            try (source) {
+                final List<Student> run = new ArrayList<>();
+                final Iterator<Student> iterator = source.iterator();
+                while (iterator.hasNext()) {
+                    run.add(iterator.next());
+                    if (run.size() == budget && iterator.hasNext()) {
+                        runs.add(spill(run, comparator, created));
+                    }
+                }
+                run.sort(comparator);
+                if (runs.isEmpty()) {
+                    success = true;
+                    return run.stream();
+                }
+                if (!run.isEmpty()) {
+                    runs.add(spill(run, comparator, created));
+                }
+            }
+            while (runs.size() > MERGE_FAN_IN) {
+                runs = mergePass(runs, comparator, created);
+            }
+
+            final Merger merger = new Merger(comparator, runs);
+            success = true;
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merger, Spliterator.ORDERED), false)
+                    .onClose(merger::close);
+        } finally {
+            if (!success) {
+                delete(created);
+            }
+        }
+    }
+
+    /**
+     * Merges every {@link #MERGE_FAN_IN} consecutive runs into one. Runs stay in input order,
+     * so the merge keeps the sort stable. Merged runs are deleted.
+     */
+    private static List<Path> mergePass(final List<Path> runs, final Comparator<Student> comparator,
+            final List<Path> created) throws IOException {
+        final List<Path> merged = new ArrayList<>();
+        for (int from = 0; from < runs.size(); from += MERGE_FAN_IN) {
+            final List<Path> group = runs.subList(from, Math.min(from + MERGE_FAN_IN, runs.size()));
+            if (group.size() == 1) {
+                merged.add(group.get(0));
+                continue;
+            }
+            final Path path = createRun(created);
+            merged.add(path);
+            try (final Merger merger = new Merger(comparator, List.copyOf(group));
+                 final BufferedWriter writer = Files.newBufferedWriter(path)) {
+                while (merger.hasNext()) {
+                    writer.write(format(merger.next()));
+                    writer.newLine();
+                }
+            }
+        }
+        return merged;
+    }
+
+    private static Path createRun(final List<Path> created) throws IOException {
+        final Path path = Files.createTempFile("students", ".run");
+        created.add(path);
+        return path;
+    }
+
+    private static Path spill(final List<Student> run, final Comparator<Student> comparator,
+            final List<Path> created) throws IOException {
+        run.sort(comparator);
+        final Path path = createRun(created);
+        try (final BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (final Student student : run) {
+                writer.write(format(student));
+                writer.newLine();
+            }
+        }
+        run.clear();
+        return path;
+    }
+
+    private static void delete(final List<Path> paths) {
+        for (final Path path : paths) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (final IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Lazy k-way merge of sorted runs. Equal students are taken from earlier runs first,
+     * which keeps the sort stable.
+     */
+    private static final class Merger implements Iterator<Student>, Closeable {
+        private final List<Path> paths;
+        private final List<BufferedReader> readers = new ArrayList<>();
+        private final PriorityQueue<Head> heads;
+
+        Merger(final Comparator<Student> comparator, final List<Path> paths) throws IOException {
+            this.paths = paths;
+            this.heads = new PriorityQueue<>(paths.size(),
+                    Comparator.comparing(Head::student, comparator).thenComparingInt(Head::run));
+            try {
+                for (final Path path : paths) {
+                    readers.add(Files.newBufferedReader(path));
+                    advance(readers.size() - 1);
+                }
+            } catch (final IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        private void advance(final int run) throws IOException {
+            final String line = readers.get(run).readLine();
+            if (line != null) {
+                heads.add(new Head(parse(line), run));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Student next() {
+            final Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            try {
+                advance(head.run());
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return head.student();
+        }
+
+        @Override
+        public void close() {
+            for (final BufferedReader reader : readers) {
+                try {
+                    reader.close();
+                } catch (final IOException ignored) {
+                }
+            }
+            delete(paths);
+        }
+
+        private record Head(Student student, int run) {
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package info.kgeorgiy.ja.barsukov.student;
+
+import info.kgeorgiy.java.advanced.student.GroupName;
+import info.kgeorgiy.java.advanced.student.Student;
+
+import java.util.*;
+
+/**
+ * Immutable list of students stored by columns: ids in an {@code int[]}, names as codes into
+ * a shared dictionary and groups as ordinals. A {@link Student} is created only by {@link #get(int)}.
+ * {@link ColumnarStudentDB} answers queries over such a list without creating students.
+ */
+public final class StudentColumns extends AbstractList<Student> implements RandomAccess {
+    static final GroupName[] GROUPS = GroupName.values();
+
+    final int size;
+    final int[] ids;
+    final int[] firstNames;
+    final int[] lastNames;
+    final byte[] groups;
+    final String[] dictionary;
+    // Position of every dictionary entry among all names sorted in descending order
+    final int[] descendingRanks;
+    private final Map<String, Integer> codes;
+
+    private StudentColumns(final Builder builder) {
+        this.size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.firstNames = Arrays.copyOf(builder.firstNames, size);
+        this.lastNames = Arrays.copyOf(builder.lastNames, size);
+        this.groups = Arrays.copyOf(builder.groups, size);
+        this.dictionary = builder.dictionary.toArray(String[]::new);
+        this.codes = Map.copyOf(builder.codes);
+
+        final Integer[] byName = new Integer[dictionary.length];
+        Arrays.setAll(byName, i -> i);
+        Arrays.sort(byName, Comparator.comparing((Integer code) -> dictionary[code]).reversed());
+        this.descendingRanks = new int[dictionary.length];
+        for (int i = 0; i < byName.length; i++) {
+            descendingRanks[byName[i]] = i;
+        }
+    }
+
+    public static StudentColumns of(final Collection<Student> students) {
+        final Builder builder = new Builder();
+        students.forEach(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Returns dictionary code of {@code name}, or {@code -1} if no student has it.
+     */
+    int code(final String name) {
+        return codes.getOrDefault(name, -1);
+    }
+
+    @Override
+    public Student get(final int index) {
+        Objects.checkIndex(index, size);
+        return new Student(ids[index], dictionary[firstNames[index]], dictionary[lastNames[index]],
+                GROUPS[groups[index]]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Collects students into columns without keeping them.
+     */
+    public static final class Builder {
+        private int size;
+        private int[] ids = new int[16];
+        private int[] firstNames = new int[16];
+        private int[] lastNames = new int[16];
+        private byte[] groups = new byte[16];
+        private final List<String> dictionary = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        public Builder add(final Student student) {
+            return add(student.getId(), student.getFirstName(), student.getLastName(), student.getGroup());
+        }
+
+        public Builder add(final int id, final String firstName, final String lastName, final GroupName group) {
+            if (size == ids.length) {
+                final int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                firstNames = Arrays.copyOf(firstNames, capacity);
+                lastNames = Arrays.copyOf(lastNames, capacity);
+                groups = Arrays.copyOf(groups, capacity);
+            }
+            ids[size] = id;
+            firstNames[size] = encode(firstName);
+            lastNames[size] = encode(lastName);
+            groups[size] = (byte) group.ordinal();
+            size++;
+            return this;
+        }
+
+        private int encode(final String name) {
+            return codes.computeIfAbsent(Objects.requireNonNull(name), key -> {
+                dictionary.add(key);
+                return dictionary.size() - 1;
+            });
+        }
+
+        public StudentColumns build() {
+            return new StudentColumns(this);
+        }
+    }
+}
@@ -11,11 +11,11 @@ import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class StudentDB implements StudentQuery {
-    private static final Comparator<Student> SORT_BY_NAME =
+    static final Comparator<Student> SORT_BY_NAME =
             // :NOTE: Упростить, formatting
             Comparator.comparing(Student::getLastName).thenComparing(Student::getFirstName).reversed().thenComparingInt(Student::getId);
 
-    private static final Comparator<Student> COMPARE_ID = Comparator.comparingInt(Student::getId);
+    static final Comparator<Student> COMPARE_ID = Comparator.comparingInt(Student::getId);
 
     @Override
     public List<String> getFirstNames(final List<Student> students) {
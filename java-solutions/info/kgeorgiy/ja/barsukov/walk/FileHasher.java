@@ -0,0 +1,114 @@
+package info.kgeorgiy.ja.barsukov.walk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hashes files with its own digest and buffer, so it must not be shared between threads.
+ * Files smaller than {@link #MAP_THRESHOLD} are read into a reused heap buffer that is passed
+ * to the digest as is, larger ones are mapped into memory window by window. JDK digests copy
+ * mapped bytes into a heap array chunk by chunk, so only {@link XxHash64} reads them in place.
+ */
+class FileHasher {
+    static final String DEFAULT_ALGORITHM = "SHA-1";
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long MAP_THRESHOLD = 1 << 20;
+    private static final long MAP_WINDOW_SIZE = 1 << 26;
+
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private final ByteBuffer wrappedBuf = ByteBuffer.wrap(buf);
+    private final MessageDigest messageDigest;
+    private final byte[] digest;
+    private final byte[] nullDigest;
+    private final String nullHash;
+
+    /**
+     * Creates hasher for any {@link MessageDigest} algorithm or {@value XxHash64#ALGORITHM}.
+     */
+    FileHasher(final String algorithm) throws NoSuchAlgorithmException {
+        messageDigest = XxHash64.ALGORITHM.equalsIgnoreCase(algorithm)
+                ? new XxHash64()
+                : MessageDigest.getInstance(algorithm);
+        digest = new byte[messageDigest.getDigestLength()];
+        nullDigest = new byte[digest.length];
+        nullHash = LineWriter.toHex(nullDigest);
+    }
+
+    /**
+     * Returns hash of files that cannot be read, as wide as a digest of this algorithm.
+     */
+    String nullHash() {
+        return nullHash;
+    }
+
+    String getFileHash(final String path) {
+        return LineWriter.toHex(hashFile(path));
+    }
+
+    String getFileHash(final Path path) {
+        return LineWriter.toHex(hashFile(path));
+    }
+
+    /**
+     * Returns digest of the file, or zeros if it cannot be read.
+     * The array is reused and is only valid until the next call.
+     */
+    byte[] hashFile(final String path) {
+        try {
+            return hashFile(Path.of(path));
+        } catch (final InvalidPathException e) {
+            return nullDigest;
+        }
+    }
+
+    /**
+     * Returns digest of the file, or zeros if it cannot be read.
+     * The array is reused and is only valid until the next call.
+     */
+    byte[] hashFile(final Path path) {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size >= MAP_THRESHOLD) {
+                map(channel, size);
+            }
+            // Also picks up whatever was appended after the size was taken
+            read(channel);
+            messageDigest.digest(digest, 0, digest.length);
+            return digest;
+        } catch (final IOException | DigestException e) {
+            messageDigest.reset();
+            return nullDigest;
+        }
+    }
+
+    private void map(final FileChannel channel, final long size) throws IOException {
+        for (long position = 0; position < size; position += MAP_WINDOW_SIZE) {
+            final long length = Math.min(MAP_WINDOW_SIZE, size - position);
+            messageDigest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+        }
+        channel.position(size);
+    }
+
+    private void read(final FileChannel channel) throws IOException {
+        int size;
+        while ((size = channel.read(wrappedBuf.clear())) != -1) {
+            messageDigest.update(buf, 0, size);
+        }
+    }
+
+    String hash(final InputStream is) throws IOException {
+        int size;
+        while ((size = is.read(buf)) != -1) {
+            messageDigest.update(buf, 0, size);
+        }
+        return LineWriter.toHex(messageDigest.digest());
+    }
+}
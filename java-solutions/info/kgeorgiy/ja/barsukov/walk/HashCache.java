@@ -0,0 +1,147 @@
+package info.kgeorgiy.ja.barsukov.walk;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persistent cache of file hashes. A file is hashed again only if its size, modification time
+ * or file key (device and inode on Unix) differ from the ones stored in the cache.
+ * The cache file is rewritten at once by {@link #save()}, entries of files not requested
+ * during the run are dropped. The first line holds the digest algorithm, a cache of
+ * another algorithm is ignored.
+ */
+class HashCache {
+    private static final String SEPARATOR = " ";
+    private static final String NO_KEY = "-";
+
+    private final Path file;
+    private final String algorithm;
+    private final Map<String, Entry> previous;
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private HashCache(final Path file, final String algorithm, final Map<String, Entry> previous) {
+        this.file = file;
+        this.algorithm = algorithm;
+        this.previous = previous;
+    }
+
+    /**
+     * Loads cache from {@code file}. Missing file gives an empty cache, malformed lines are skipped.
+     */
+    static HashCache load(final Path file, final String algorithm) throws WalkException {
+        final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        if (Files.exists(file)) {
+            try (final BufferedReader reader = Files.newBufferedReader(file)) {
+                String line = reader.readLine();
+                if (!algorithm.equals(line)) {
+                    line = null;
+                }
+                while (line != null && (line = reader.readLine()) != null) {
+                    final String[] parts = line.split(SEPARATOR, 5);
+                    if (parts.length == 5) {
+                        try {
+                            entries.put(parts[4], new Entry(Long.parseLong(parts[1]), Long.parseLong(parts[2]),
+                                    parts[3], parts[0]));
+                        } catch (final NumberFormatException ignored) {
+                        }
+                    }
+                }
+            } catch (final IOException e) {
+                throw new WalkException("Unable to read cache file: " + e.getMessage());
+            }
+        }
+        return new HashCache(file, algorithm, entries);
+    }
+
+    String getFileHash(final FileHasher hasher, final String path) {
+        final Path file;
+        final BasicFileAttributes attributes;
+        try {
+            file = Path.of(path);
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (final InvalidPathException | IOException e) {
+            misses.increment();
+            return hasher.getFileHash(path);
+        }
+
+        final Entry entry = previous.get(path);
+        if (entry != null && entry.matches(attributes)) {
+            hits.increment();
+            current.put(path, entry);
+            return entry.hash;
+        }
+        misses.increment();
+        // Attributes are taken before hashing, so a file changed meanwhile is hashed again next time
+        final String hash = hasher.getFileHash(file);
+        if (!hash.equals(hasher.nullHash())) {
+            current.put(path, Entry.of(attributes, hash));
+        }
+        return hash;
+    }
+
+    /**
+     * Writes the entries used in this run to a temporary file and moves it over the cache file.
+     */
+    void save() throws WalkException {
+        final Path directory = file.toAbsolutePath().getParent();
+        Walk.createDirectories(file.toAbsolutePath());
+        try {
+            final Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                try (final BufferedWriter writer = Files.newBufferedWriter(temp)) {
+                    writer.write(algorithm);
+                    writer.newLine();
+                    for (final Map.Entry<String, Entry> entry : current.entrySet()) {
+                        writer.write(entry.getValue().format(entry.getKey()));
+                        writer.newLine();
+                    }
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (final IOException e) {
+            throw new WalkException("Unable to write cache file: " + e.getMessage());
+        }
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    private record Entry(long size, long modified, String key, String hash) {
+        static Entry of(final BasicFileAttributes attributes, final String hash) {
+            return new Entry(attributes.size(), modified(attributes), key(attributes), hash);
+        }
+
+        private static long modified(final BasicFileAttributes attributes) {
+            return attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        }
+
+        private static String key(final BasicFileAttributes attributes) {
+            final Object key = attributes.fileKey();
+            return key == null ? NO_KEY : key.toString().replace(SEPARATOR, "");
+        }
+
+        boolean matches(final BasicFileAttributes attributes) {
+            return size == attributes.size() && modified == modified(attributes) && key.equals(key(attributes));
+        }
+
+        String format(final String path) {
+            return String.join(SEPARATOR, hash, Long.toString(size), Long.toString(modified), key, path);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package info.kgeorgiy.ja.barsukov.walk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes {@code <hash> <path>} lines into a reused batch that goes to the underlying writer
+ * only when full. Digests are hex-encoded straight into the batch, so a line costs no allocation.
+ */
+class LineWriter implements Closeable {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final int BATCH_SIZE = 1 << 16;
+
+    private final Writer writer;
+    private final char[] batch = new char[BATCH_SIZE];
+    private int size;
+
+    LineWriter(final Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Encodes {@code bytes} as lowercase hex into {@code dest} starting at {@code offset}.
+     *
+     * @return offset after the last written char.
+     */
+    static int encodeHex(final byte[] bytes, final char[] dest, int offset) {
+        for (final byte b : bytes) {
+            dest[offset++] = HEX[(b >> 4) & 0xF];
+            dest[offset++] = HEX[b & 0xF];
+        }
+        return offset;
+    }
+
+    static String toHex(final byte[] bytes) {
+        final char[] chars = new char[bytes.length << 1];
+        encodeHex(bytes, chars, 0);
+        return new String(chars);
+    }
+
+    void writeLine(final byte[] hash, final String path) throws IOException {
+        reserve(hash.length << 1);
+        size = encodeHex(hash, batch, size);
+        writeRest(path);
+    }
+
+    void writeLine(final String hash, final String path) throws IOException {
+        write(hash);
+        writeRest(path);
+    }
+
+    private void writeRest(final String path) throws IOException {
+        reserve(1);
+        batch[size++] = ' ';
+        write(path);
+        write(LINE_SEPARATOR);
+    }
+
+    private void write(final String string) throws IOException {
+        final int length = string.length();
+        if (length > BATCH_SIZE) {
+            flushBatch();
+            writer.write(string);
+            return;
+        }
+        reserve(length);
+        string.getChars(0, length, batch, size);
+        size += length;
+    }
+
+    private void reserve(final int length) throws IOException {
+        if (size + length > BATCH_SIZE) {
+            flushBatch();
+        }
+    }
+
+    private void flushBatch() throws IOException {
+        writer.write(batch, 0, size);
+        size = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (writer) {
+            flushBatch();
+        }
+    }
+}
@@ -1,4 +1,200 @@
-package info.kgeorgiy.ja.__last_name__.walk;
+package info.kgeorgiy.ja.barsukov.walk;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Recursive version of {@link Walk}: every directory listed in the input file is traversed
+ * on a {@link ForkJoinPool}, where each directory is a separate task and files are hashed
+ * in batches. Lines are written as soon as they are ready, unless {@code --ordered} is given:
+ * then every root is written at once in {@link Files#walk} order.
+ */
 public class RecursiveWalk {
+    private static final String USAGE =
+            "Usage:\njava RecursiveWalk [--threads <threads>] [--algorithm <SHA-1|SHA-256|MD5|XXH64>] [--ordered] "
+                    + "<input file> <output file>";
+    private static final String ORDERED_OPTION = "--ordered";
+    // Files of one directory hashed by a single task
+    private static final int FILES_PER_TASK = 64;
+
+    private final ThreadLocal<FileHasher> hashers;
+    private final BufferedWriter writer;
+    private final boolean ordered;
+
+    private RecursiveWalk(final String algorithm, final BufferedWriter writer, final boolean ordered) {
+        this.hashers = Walk.newThreadHashers(algorithm);
+        this.writer = writer;
+        this.ordered = ordered;
+    }
+
+    public static void main(final String[] args) {
+        try {
+            run(args);
+        } catch (final WalkException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    static void run(final String[] args) throws WalkException {
+        if (args == null || args.length < 2) {
+            throw new WalkException(USAGE);
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        String algorithm = FileHasher.DEFAULT_ALGORITHM;
+        boolean ordered = false;
+        int i = 0;
+        for (; i < args.length - 2; i++) {
+            if (Walk.THREADS_OPTION.equals(args[i]) && i + 1 < args.length - 2) {
+                threads = Walk.parseThreads(args[++i]);
+            } else if (Walk.ALGORITHM_OPTION.equals(args[i]) && i + 1 < args.length - 2) {
+                algorithm = args[++i];
+            } else if (ORDERED_OPTION.equals(args[i])) {
+                ordered = true;
+            } else {
+                throw new WalkException(USAGE);
+            }
+        }
+        if (args[i] == null || args[i + 1] == null || algorithm == null) {
+            throw new WalkException(USAGE);
+        }
+        Walk.newHasher(algorithm);
+
+        final Path inputFile = Walk.createFile(args[i], "input");
+        final Path outputFile = Walk.createFile(args[i + 1], "output");
+        Walk.createDirectories(outputFile);
+
+        try (final BufferedReader bufferedReader = Files.newBufferedReader(inputFile)) {
+            try (final BufferedWriter bufferedWriter = Files.newBufferedWriter(outputFile)) {
+                final ForkJoinPool pool = new ForkJoinPool(threads);
+                try {
+                    new RecursiveWalk(algorithm, bufferedWriter, ordered).walk(bufferedReader, pool);
+                } finally {
+                    pool.shutdownNow();
+                }
+            } catch (final IOException e) {
+                throw new WalkException("Unable to open output file: " + outputFile);
+            }
+        } catch (final IOException e) {
+            throw new WalkException("Unable to open input file: " + inputFile);
+        }
+    }
+
+    private void walk(final BufferedReader reader, final ForkJoinPool pool) throws WalkException {
+        String root;
+        while ((root = Walk.readLine(reader)) != null) {
+            try {
+                final Path path;
+                try {
+                    path = Path.of(root);
+                } catch (final InvalidPathException e) {
+                    write(hashers.get().nullHash() + " " + root);
+                    continue;
+                }
+                final List<String> lines = pool.invoke(Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)
+                        ? new DirectoryTask(path)
+                        : new FilesTask(List.of(path)));
+                for (final String line : lines) {
+                    write(line);
+                }
+            } catch (final UncheckedIOException e) {
+                throw new WalkException("Unable to write data to output file: " + e.getCause().getMessage());
+            }
+        }
+    }
+
+    private void write(final String line) {
+        try {
+            synchronized (writer) {
+                writer.write(line);
+                writer.newLine();
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes {@code line} right away, or returns it to be written in order.
+     */
+    private List<String> emit(final String line, final List<String> lines) {
+        if (ordered) {
+            lines.add(line);
+        } else {
+            write(line);
+        }
+        return lines;
+    }
+
+    private static List<String> joinInOrder(final List<ForkJoinTask<List<String>>> tasks, final List<String> lines) {
+        for (final ForkJoinTask<List<String>> task : tasks) {
+            lines.addAll(task.join());
+        }
+        return lines;
+    }
+
+    private final class FilesTask extends RecursiveTask<List<String>> {
+        private final List<Path> files;
+
+        FilesTask(final List<Path> files) {
+            this.files = files;
+        }
+
+        @Override
+        protected List<String> compute() {
+            final FileHasher hasher = hashers.get();
+            final List<String> lines = new ArrayList<>(ordered ? files.size() : 0);
+            for (final Path file : files) {
+                emit(hasher.getFileHash(file) + " " + file, lines);
+            }
+            return lines;
+        }
+    }
+
+    private final class DirectoryTask extends RecursiveTask<List<String>> {
+        private final Path directory;
+
+        DirectoryTask(final Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected List<String> compute() {
+            final List<ForkJoinTask<List<String>>> tasks = new ArrayList<>();
+            List<Path> files = new ArrayList<>();
+            try (final DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (final Path entry : entries) {
+                    if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        files = forkFiles(files, tasks);
+                        tasks.add(new DirectoryTask(entry).fork());
+                    } else {
+                        files.add(entry);
+                        if (files.size() == FILES_PER_TASK) {
+                            files = forkFiles(files, tasks);
+                        }
+                    }
+                }
+            } catch (final IOException | DirectoryIteratorException e) {
+                forkFiles(files, tasks);
+                return emit(hashers.get().nullHash() + " " + directory, joinInOrder(tasks, new ArrayList<>()));
+            }
+            forkFiles(files, tasks);
+            return joinInOrder(tasks, new ArrayList<>());
+        }
+
+        private List<Path> forkFiles(final List<Path> files, final List<ForkJoinTask<List<String>>> tasks) {
+            if (files.isEmpty()) {
+                return files;
+            }
+            tasks.add(new FilesTask(files).fork());
+            return new ArrayList<>();
+        }
+    }
 }
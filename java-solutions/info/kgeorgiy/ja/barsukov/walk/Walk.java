@@ -1,20 +1,26 @@
 package info.kgeorgiy.ja.barsukov.walk;
 
 import java.io.*;
-import java.math.BigInteger;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class Walk {
-    static final String NULL_FILE_HASH = "0000000000000000000000000000000000000000";
-    private static final int DEFAULT_BUFFER_SIZE = 8192;
-
-    // :NOTE: Глобальные переменные
-    private static final byte[] buf = new byte[DEFAULT_BUFFER_SIZE];
-    private static MessageDigest messageDigest;
+    private static final String USAGE = "Usage:\njava Walk [--threads <threads>] [--cache <cache file>] "
+            + "[--algorithm <SHA-1|SHA-256|MD5|XXH64>] <input file> <output file>";
+    static final String THREADS_OPTION = "--threads";
+    static final String ALGORITHM_OPTION = "--algorithm";
+    private static final String CACHE_OPTION = "--cache";
+    // Pending lines per worker kept in the reorder buffer
+    private static final int PENDING_PER_THREAD = 64;
 
     public static void main(final String[] args) {
         try {
@@ -24,7 +30,7 @@ public class Walk {
         }
     }
 
-    private static void createDirectories(final Path path) {
+    static void createDirectories(final Path path) {
         final Path parent = path.getParent();
         if (parent == null) {
             return;
@@ -35,15 +41,7 @@ public class Walk {
         }
     }
 
-    private static String getFileHash(final Path path) {
-        try (final InputStream is = Files.newInputStream(path)) {
-            return hash(is);
-        } catch (final IOException e) {
-            return NULL_FILE_HASH;
-        }
-    }
-
-    private static Path createFile(final String fileName, final String type) throws WalkException {
+    static Path createFile(final String fileName, final String type) throws WalkException {
         try {
             return Path.of(fileName);
         } catch (final InvalidPathException e) {
@@ -51,54 +49,66 @@ public class Walk {
         }
     }
 
-    public static String hash(final InputStream is) throws IOException {
-        int size;
-        while ((size = is.read(buf)) != -1) {
-            messageDigest.update(buf, 0, size);
+    static FileHasher newHasher(final String algorithm) throws WalkException {
+        try {
+            return new FileHasher(algorithm);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new WalkException("Digest error: " + e.getMessage());
         }
-        final byte[] hash = messageDigest.digest();
-        return String.format("%0" + (hash.length << 1) + "x", new BigInteger(1, hash));
     }
 
-    private static boolean validArgs(final String[] args) {
-        return args != null && args.length == 2 && args[0] != null && args[1] != null;
+    static ThreadLocal<FileHasher> newThreadHashers(final String algorithm) {
+        return ThreadLocal.withInitial(() -> {
+            try {
+                return newHasher(algorithm);
+            } catch (final WalkException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        });
     }
 
-    static void run(final String[] args) throws WalkException {
-        if (!validArgs(args)) {
-            throw new WalkException("Usage:\njava Walk <input file> <output file>");
+    static int parseThreads(final String threads) throws WalkException {
+        try {
+            final int result = Integer.parseInt(threads);
+            if (result > 0) {
+                return result;
+            }
+        } catch (final NumberFormatException ignored) {
         }
+        throw new WalkException("Number of threads should be positive integer: " + threads);
+    }
 
-        try {
-            messageDigest = MessageDigest.getInstance("SHA-1");
-        } catch (final NoSuchAlgorithmException e) {
-            throw new WalkException("Digest error: " + e.getMessage());
+    static void run(final String[] args) throws WalkException {
+        if (args == null || args.length < 2 || args.length % 2 != 0 || Arrays.asList(args).contains(null)) {
+            throw new WalkException(USAGE);
+        }
+        int threads = 1;
+        String algorithm = FileHasher.DEFAULT_ALGORITHM;
+        Path cacheFile = null;
+        for (int i = 0; i < args.length - 2; i += 2) {
+            if (THREADS_OPTION.equals(args[i])) {
+                threads = parseThreads(args[i + 1]);
+            } else if (ALGORITHM_OPTION.equals(args[i])) {
+                algorithm = args[i + 1];
+            } else if (CACHE_OPTION.equals(args[i])) {
+                cacheFile = createFile(args[i + 1], "cache");
+            } else {
+                throw new WalkException(USAGE);
+            }
         }
+        final FileHasher hasher = newHasher(algorithm);
+        final HashCache cache = cacheFile == null ? null : HashCache.load(cacheFile, algorithm);
 
-        final Path inputFile = createFile(args[0], "input");
-        final Path outputFile = createFile(args[1], "output");
+        final Path inputFile = createFile(args[args.length - 2], "input");
+        final Path outputFile = createFile(args[args.length - 1], "output");
         createDirectories(outputFile);
 
         try (final BufferedReader bufferedReader = Files.newBufferedReader(inputFile)) {
-            try (final BufferedWriter bufferedWriter = Files.newBufferedWriter(outputFile)) {
-                try {
-                    String path;
-                    while ((path = bufferedReader.readLine()) != null) {
-                        String hash;
-                        try {
-                            hash = getFileHash(Path.of(path));
-                        } catch (final InvalidPathException e) {
-                            hash = NULL_FILE_HASH;
-                        }
-                        try {
-                            bufferedWriter.write(hash + " " + path);
-                            bufferedWriter.newLine();
-                        } catch (final IOException e) {
-                            throw new WalkException("Unable to write data to output file: " + e.getMessage());
-                        }
-                    }
-                } catch (final IOException e) {
-                    throw new WalkException("Unable to read data from input file: " + e.getMessage());
+            try (final LineWriter lineWriter = new LineWriter(Files.newBufferedWriter(outputFile))) {
+                if (threads == 1) {
+                    walk(bufferedReader, lineWriter, hasher, cache);
+                } else {
+                    walk(bufferedReader, lineWriter, algorithm, cache, threads);
                 }
             } catch (final IOException e) {
                 throw new WalkException("Unable to open output file: " + outputFile);
@@ -106,5 +116,85 @@ public class Walk {
         } catch (final IOException e) {
             throw new WalkException("Unable to open input file: " + inputFile);
         }
+
+        if (cache != null) {
+            cache.save();
+            System.out.println("Cache hits: " + cache.hits() + ", misses: " + cache.misses());
+        }
+    }
+
+    private static String getFileHash(final FileHasher hasher, final HashCache cache, final String path) {
+        return cache == null ? hasher.getFileHash(path) : cache.getFileHash(hasher, path);
+    }
+
+    static String readLine(final BufferedReader reader) throws WalkException {
+        try {
+            return reader.readLine();
+        } catch (final IOException e) {
+            throw new WalkException("Unable to read data from input file: " + e.getMessage());
+        }
+    }
+
+    private static WalkException writeError(final IOException e) {
+        return new WalkException("Unable to write data to output file: " + e.getMessage());
+    }
+
+    private static void walk(final BufferedReader reader, final LineWriter writer, final FileHasher hasher,
+            final HashCache cache) throws WalkException {
+        try {
+            String path;
+            while ((path = readLine(reader)) != null) {
+                if (cache == null) {
+                    writer.writeLine(hasher.hashFile(path), path);
+                } else {
+                    writer.writeLine(cache.getFileHash(hasher, path), path);
+                }
+            }
+        } catch (final IOException e) {
+            throw writeError(e);
+        }
+    }
+
+    /**
+     * Hashes files on {@code threads} workers, each with its own {@link FileHasher}.
+     * Lines are written in input order: at most {@code threads * PENDING_PER_THREAD}
+     * files are in flight, and the oldest one is awaited before a new one is submitted.
+     */
+    private static void walk(final BufferedReader reader, final LineWriter writer, final String algorithm,
+            final HashCache cache, final int threads) throws WalkException {
+        final ThreadLocal<FileHasher> hashers = newThreadHashers(algorithm);
+        final int limit = threads * PENDING_PER_THREAD;
+        final Queue<Pending> pending = new ArrayDeque<>(limit);
+        final ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            String path;
+            while ((path = readLine(reader)) != null) {
+                if (pending.size() == limit) {
+                    pending.remove().write(writer);
+                }
+                final String file = path;
+                pending.add(new Pending(file, workers.submit(() -> getFileHash(hashers.get(), cache, file))));
+            }
+            while (!pending.isEmpty()) {
+                pending.remove().write(writer);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private record Pending(String path, Future<String> hash) {
+        void write(final LineWriter writer) throws WalkException {
+            try {
+                writer.writeLine(hash.get(), path);
+            } catch (final IOException e) {
+                throw writeError(e);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WalkException("Interrupted while hashing " + path);
+            } catch (final ExecutionException e) {
+                throw new WalkException("Unable to hash " + path + ": " + e.getCause().getMessage());
+            }
+        }
     }
 }
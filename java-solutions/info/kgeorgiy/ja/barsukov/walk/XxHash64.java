@@ -0,0 +1,183 @@
+package info.kgeorgiy.ja.barsukov.walk;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.DigestException;
+import java.security.MessageDigest;
+
+/**
+ * Non-cryptographic 64-bit xxHash (XXH64) with zero seed, exposed as a {@link MessageDigest}.
+ * Digest is the canonical big-endian representation of the hash.
+ */
+class XxHash64 extends MessageDigest {
+    static final String ALGORITHM = "XXH64";
+
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+    private static final int STRIPE = 32;
+    private static final int DIGEST_LENGTH = 8;
+
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final byte[] buffer = new byte[STRIPE];
+    private int buffered;
+    private long total;
+    private long v1;
+    private long v2;
+    private long v3;
+    private long v4;
+
+    XxHash64() {
+        super(ALGORITHM);
+        engineReset();
+    }
+
+    @Override
+    protected int engineGetDigestLength() {
+        return DIGEST_LENGTH;
+    }
+
+    @Override
+    protected void engineReset() {
+        buffered = 0;
+        total = 0;
+        v1 = PRIME1 + PRIME2;
+        v2 = PRIME2;
+        v3 = 0;
+        v4 = -PRIME1;
+    }
+
+    @Override
+    protected void engineUpdate(final byte input) {
+        buffer[buffered++] = input;
+        total++;
+        if (buffered == STRIPE) {
+            stripe(buffer, 0);
+            buffered = 0;
+        }
+    }
+
+    @Override
+    protected void engineUpdate(final byte[] input, int offset, int length) {
+        total += length;
+        if (buffered > 0) {
+            final int head = Math.min(length, STRIPE - buffered);
+            System.arraycopy(input, offset, buffer, buffered, head);
+            buffered += head;
+            offset += head;
+            length -= head;
+            if (buffered < STRIPE) {
+                return;
+            }
+            stripe(buffer, 0);
+            buffered = 0;
+        }
+        for (; length >= STRIPE; offset += STRIPE, length -= STRIPE) {
+            stripe(input, offset);
+        }
+        System.arraycopy(input, offset, buffer, 0, length);
+        buffered = length;
+    }
+
+    @Override
+    protected void engineUpdate(final ByteBuffer input) {
+        if (input.hasArray()) {
+            engineUpdate(input.array(), input.arrayOffset() + input.position(), input.remaining());
+            input.position(input.limit());
+            return;
+        }
+        while (buffered > 0 && input.hasRemaining()) {
+            engineUpdate(input.get());
+        }
+        final ByteBuffer view = input.slice().order(ByteOrder.LITTLE_ENDIAN);
+        int position = 0;
+        for (; view.remaining() - position >= STRIPE; position += STRIPE) {
+            v1 = round(v1, view.getLong(position));
+            v2 = round(v2, view.getLong(position + 8));
+            v3 = round(v3, view.getLong(position + 16));
+            v4 = round(v4, view.getLong(position + 24));
+        }
+        total += position;
+        input.position(input.position() + position);
+        while (input.hasRemaining()) {
+            engineUpdate(input.get());
+        }
+    }
+
+    @Override
+    protected byte[] engineDigest() {
+        final byte[] digest = new byte[DIGEST_LENGTH];
+        digest(digest, 0);
+        return digest;
+    }
+
+    @Override
+    protected int engineDigest(final byte[] buf, final int offset, final int length) throws DigestException {
+        if (length < DIGEST_LENGTH) {
+            throw new DigestException("Partial digests not returned");
+        }
+        digest(buf, offset);
+        return DIGEST_LENGTH;
+    }
+
+    private void digest(final byte[] buf, final int offset) {
+        long hash;
+        if (total >= STRIPE) {
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = merge(hash, v1);
+            hash = merge(hash, v2);
+            hash = merge(hash, v3);
+            hash = merge(hash, v4);
+        } else {
+            hash = PRIME5;
+        }
+        hash += total;
+
+        int i = 0;
+        for (; i + 8 <= buffered; i += 8) {
+            hash ^= round(0, (long) LONG.get(buffer, i));
+            hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+        }
+        if (i + 4 <= buffered) {
+            hash ^= ((int) INT.get(buffer, i) & 0xFFFFFFFFL) * PRIME1;
+            hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+            i += 4;
+        }
+        for (; i < buffered; i++) {
+            hash ^= (buffer[i] & 0xFFL) * PRIME5;
+            hash = Long.rotateLeft(hash, 11) * PRIME1;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME2;
+        hash ^= hash >>> 29;
+        hash *= PRIME3;
+        hash ^= hash >>> 32;
+
+        engineReset();
+        for (int j = DIGEST_LENGTH - 1; j >= 0; j--, hash >>>= 8) {
+            buf[offset + j] = (byte) hash;
+        }
+    }
+
+    private void stripe(final byte[] input, final int offset) {
+        v1 = round(v1, (long) LONG.get(input, offset));
+        v2 = round(v2, (long) LONG.get(input, offset + 8));
+        v3 = round(v3, (long) LONG.get(input, offset + 16));
+        v4 = round(v4, (long) LONG.get(input, offset + 24));
+    }
+
+    private static long round(final long acc, final long input) {
+        return Long.rotateLeft(acc + input * PRIME2, 31) * PRIME1;
+    }
+
+    private static long merge(final long hash, final long acc) {
+        return (hash ^ round(0, acc)) * PRIME1 + PRIME4;
+    }
+}
@@ -0,0 +1,10 @@
+#!/bin/bash
+# Builds java-solutions with java-benchmarks and runs JMH, all arguments go to org.openjdk.jmh.Main.
+# JMH jars (jmh-core, jmh-generator-annprocess, jopt-simple, commons-math3) are expected in ../lib/jmh.
+out="../out/benchmarks"
+classpath="../artifacts/*:../lib/*:../lib/jmh/*"
+rm -rf "$out"
+mkdir -p "$out"
+# shellcheck disable=SC2046
+javac -encoding UTF-8 -cp "$classpath" -d "$out" $(find ../java-solutions ../java-benchmarks -name "*.java")
+java -cp "$out:$classpath" org.openjdk.jmh.Main "$@"